@@ -0,0 +1,47 @@
+#!/usr/bin/env bash
+# Compares request throughput of the default (DEBUG) configuration against the prod profile.
+#
+# Both runs hash the seeded passwords with the lowest BCrypt cost, so checking credentials does not
+# dominate the request and the logging difference shows even on a single core.
+#
+# Uses ApacheBench (ab) when installed, otherwise scripts/LoadGenerator.java. Usage:
+#   ./mvnw -q package -DskipTests
+#   scripts/benchmark-profiles.sh [requests] [concurrency]
+set -euo pipefail
+
+REQUESTS=${1:-20000}
+CONCURRENCY=${2:-32}
+PORT=${PORT:-8090}
+DATASOURCE_URL=${DATASOURCE_URL:-jdbc:h2:mem:bench}
+JAR=$(ls target/rest-api-*.jar | grep -v original | head -n 1)
+URL="http://localhost:${PORT}/surveys/Survey1/questions/Question1"
+
+run_profile() {
+    local profile=$1
+    java -jar "$JAR" --server.port="$PORT" --spring.profiles.active="$profile" \
+        --spring.datasource.url="$DATASOURCE_URL" --survey.security.bcrypt-strength=4 \
+        > "target/bench-${profile}.log" 2>&1 &
+    local pid=$!
+    trap 'kill $pid 2>/dev/null || true; wait $pid 2>/dev/null || true' RETURN
+
+    # Wait until the application answers (401 without credentials is fine)
+    until curl -s -o /dev/null "http://localhost:${PORT}/surveys"; do sleep 0.2; done
+
+    # Warm up the JIT before measuring
+    load 2000 > /dev/null
+
+    local rps
+    rps=$(load "$REQUESTS" | awk '/Requests per second/ {print $4}')
+    echo "${profile}: ${rps} requests/sec"
+}
+
+load() {
+    if command -v ab > /dev/null; then
+        ab -q -n "$1" -c "$CONCURRENCY" -A admin:admin "$URL"
+    else
+        java scripts/LoadGenerator.java "$URL" "$1" "$CONCURRENCY" admin:admin
+    fi
+}
+
+run_profile default
+run_profile prod
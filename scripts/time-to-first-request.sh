@@ -0,0 +1,48 @@
+#!/usr/bin/env bash
+# Measures the time from JVM launch until the first successful GET /surveys/Survey1.
+#
+# Usage:
+#   ./mvnw -q package -DskipTests            && scripts/time-to-first-request.sh default
+#   ./mvnw -q -Pfast-start package -DskipTests && scripts/time-to-first-request.sh fast-start
+set -euo pipefail
+
+MODE=${1:-default}
+PORT=${PORT:-8090}
+RUNS=${RUNS:-5}
+DATASOURCE_URL=${DATASOURCE_URL:-jdbc:h2:mem:ttfr}
+URL="http://localhost:${PORT}/surveys/Survey1"
+
+case "$MODE" in
+    default)
+        CMD=(java -jar "$(ls target/rest-api-*.jar | grep -v original | head -n 1)"
+            --spring.profiles.active=prod)
+        ;;
+    fast-start)
+        CMD=(java -XX:SharedArchiveFile=target/application/application.jsa -Dspring.aot.enabled=true
+            -jar "$(ls target/application/rest-api-*.jar | head -n 1)"
+            --spring.profiles.active=prod,fast-start)
+        ;;
+    *)
+        echo "Unknown mode: $MODE (expected default or fast-start)" >&2
+        exit 1
+        ;;
+esac
+
+total=0
+for run in $(seq "$RUNS"); do
+    start=$(date +%s%N)
+    "${CMD[@]}" --server.port="$PORT" --spring.datasource.url="$DATASOURCE_URL" > "target/ttfr-${MODE}.log" 2>&1 &
+    pid=$!
+
+    until [ "$(curl -s -o /dev/null -w '%{http_code}' -u admin:admin "$URL")" = "200" ]; do
+        sleep 0.02
+    done
+    elapsed=$(( ($(date +%s%N) - start) / 1000000 ))
+
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    echo "run ${run}: ${elapsed} ms"
+    total=$((total + elapsed))
+done
+
+echo "${MODE}: average time to first request $((total / RUNS)) ms"
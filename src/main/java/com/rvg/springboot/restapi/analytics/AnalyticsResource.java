@@ -0,0 +1,77 @@
+/**
+ * This class is a REST controller for approximate survey statistics.
+ *
+ * Endpoints:
+ * - GET /surveys/{surveyId}/stats: Retrieve the number of submissions, the estimated number
+ *   of distinct respondents and the p50/p90/p99 answer time per question.
+ * - GET /surveys/{surveyId}/stats/sketch: Retrieve the mergeable sketch state of this node.
+ * - POST /surveys/{surveyId}/stats/merge: Retrieve the statistics of this node merged with
+ *   the sketch states of other nodes given in the request body.
+ *
+ * Statistics are updated by every submission to /surveys/{surveyId}/responses and use fixed
+ * memory per survey; percentiles are within 2% of the exact value.
+ *
+ * @author rvega
+ */
+package com.rvg.springboot.restapi.analytics;
+
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.rvg.springboot.restapi.analytics.AnalyticsService.SketchSnapshot;
+import com.rvg.springboot.restapi.analytics.AnalyticsService.SurveyStats;
+import com.rvg.springboot.restapi.survey.SurveyService;
+
+@RestController
+@RequestMapping("/surveys/{surveyId}/stats")
+public class AnalyticsResource {
+
+    private final AnalyticsService analyticsService;
+    private final SurveyService surveyService;
+
+    public AnalyticsResource(AnalyticsService analyticsService, SurveyService surveyService) {
+        this.analyticsService = analyticsService;
+        this.surveyService = surveyService;
+    }
+
+    // Mapping HTTP GET requests to the specified URL pattern
+    // The method retrieves the approximate statistics of the survey
+    @RequestMapping(method = RequestMethod.GET)
+    public SurveyStats retrieveStats(@PathVariable String surveyId) {
+        requireSurvey(surveyId);
+        return analyticsService.stats(surveyId);
+    }
+
+    // Mapping HTTP GET requests to the specified URL pattern
+    // The method retrieves the mergeable sketch state of the survey
+    @RequestMapping(value = "/sketch", method = RequestMethod.GET)
+    public SketchSnapshot retrieveSketch(@PathVariable String surveyId) {
+        requireSurvey(surveyId);
+        return analyticsService.snapshot(surveyId);
+    }
+
+    // Mapping HTTP POST requests to the specified URL pattern
+    // The method merges the sketch states of other nodes with this node's
+    @RequestMapping(value = "/merge", method = RequestMethod.POST)
+    public SurveyStats mergeStats(@PathVariable String surveyId, @RequestBody List<SketchSnapshot> snapshots) {
+        requireSurvey(surveyId);
+        try {
+            return analyticsService.merge(surveyId, snapshots);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    private void requireSurvey(String surveyId) {
+        if (surveyService.retrieveSurveyById(surveyId) == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Survey not found");
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.rvg.springboot.restapi.analytics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.rvg.springboot.restapi.response.Submission;
+import com.rvg.springboot.restapi.response.SubmissionListener;
+import com.rvg.springboot.restapi.survey.Survey;
+
+/**
+ * Keeps approximate statistics per survey, updated by every submission: the number of
+ * distinct respondents (HyperLogLog) and percentiles of the time taken to answer each
+ * question (a logarithmic-bucket quantile sketch with 2% relative error).
+ *
+ * <p>Sketches use fixed memory and are mergeable: a snapshot exported by one node can be
+ * merged with the snapshots of other nodes to get statistics over all of them. Sketches
+ * are kept in memory, start empty after a restart and are dropped with their survey.</p>
+ *
+ * @author rvega
+ */
+@Service
+public class AnalyticsService implements SubmissionListener {
+
+    /**
+     * Approximate statistics of a survey.
+     *
+     * @param surveyId            the survey
+     * @param submissions         the number of submissions
+     * @param distinctRespondents the estimated number of distinct respondents
+     * @param answerTimes         answer time percentiles per question ID
+     */
+    public record SurveyStats(String surveyId, long submissions, long distinctRespondents,
+            Map<String, AnswerTimeStats> answerTimes) {
+    }
+
+    /**
+     * Percentiles of the time taken to answer a question, in milliseconds.
+     *
+     * @param answers the number of answers with a time
+     */
+    public record AnswerTimeStats(long answers, Double p50, Double p90, Double p99) {
+    }
+
+    /**
+     * The mergeable state of a survey's sketches, as exchanged between nodes.
+     *
+     * @param surveyId    the survey
+     * @param submissions the number of submissions
+     * @param precision   the HyperLogLog precision; only equal precisions merge
+     * @param registers   the HyperLogLog registers, Base64 encoded in JSON
+     * @param answerTimes the answer time sketch per question ID
+     */
+    public record SketchSnapshot(String surveyId, long submissions, int precision, byte[] registers,
+            Map<String, AnswerTimeSketch> answerTimes) {
+    }
+
+    /**
+     * The state of one quantile sketch.
+     *
+     * @param relativeAccuracy the sketch's relative error; only equal accuracies merge
+     * @param zeroCount        the number of values below 1 ms
+     * @param buckets          the count per non-empty logarithmic bucket index
+     */
+    public record AnswerTimeSketch(double relativeAccuracy, long zeroCount, Map<Integer, Long> buckets) {
+    }
+
+    private final int precision;
+    private final ConcurrentMap<String, SurveySketch> sketches = new ConcurrentHashMap<>();
+
+    public AnalyticsService(@Value("${survey.analytics.hll-precision:12}") int precision) {
+        // Fail at startup rather than on the first submission
+        new HyperLogLog(precision);
+        this.precision = precision;
+    }
+
+    @Override
+    public void onSubmission(Survey survey, Submission submission, long timestamp) {
+        sketchOf(survey.getId()).add(submission.respondentId(),
+                submission.answerTimes() == null ? Map.of() : submission.answerTimes());
+    }
+
+    @Override
+    public void onSurveyRemoved(String surveyId) {
+        sketches.remove(surveyId);
+    }
+
+    /**
+     * Returns the statistics of a survey as seen by this node.
+     */
+    public SurveyStats stats(String surveyId) {
+        return stats(existingSketchOf(surveyId));
+    }
+
+    /**
+     * Returns the mergeable state of a survey's sketches on this node.
+     */
+    public SketchSnapshot snapshot(String surveyId) {
+        return existingSketchOf(surveyId).snapshot();
+    }
+
+    /**
+     * Returns the statistics of this node's sketches merged with the given snapshots,
+     * without changing this node's sketches.
+     *
+     * @throws IllegalArgumentException if a snapshot is of another survey or was taken with
+     *                                  different parameters
+     */
+    public SurveyStats merge(String surveyId, List<SketchSnapshot> snapshots) {
+        SurveySketch merged = new SurveySketch(surveyId, precision);
+        merged.merge(snapshot(surveyId));
+        for (SketchSnapshot snapshot : snapshots) {
+            merged.merge(snapshot);
+        }
+        return stats(merged);
+    }
+
+    private SurveySketch sketchOf(String surveyId) {
+        return sketches.computeIfAbsent(surveyId, id -> new SurveySketch(id, precision));
+    }
+
+    // Reads of surveys without submissions must not add sketches, or any requested ID would stay in memory
+    private SurveySketch existingSketchOf(String surveyId) {
+        SurveySketch sketch = sketches.get(surveyId);
+        return sketch != null ? sketch : new SurveySketch(surveyId, precision);
+    }
+
+    private static SurveyStats stats(SurveySketch sketch) {
+        Map<String, AnswerTimeStats> answerTimes = new TreeMap<>();
+        sketch.answerTimes().forEach((questionId, times) -> answerTimes.put(questionId,
+                new AnswerTimeStats(times.count(), times.quantile(0.5), times.quantile(0.9), times.quantile(0.99))));
+        return new SurveyStats(sketch.surveyId(), sketch.submissions(), sketch.distinctRespondents(),
+                answerTimes);
+    }
+}
@@ -0,0 +1,105 @@
+package com.rvg.springboot.restapi.analytics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Mergeable quantile sketch with logarithmic buckets, in the style of DDSketch.
+ *
+ * <p>A value v &ge; 1 is counted in bucket ceil(log_gamma(v)) with
+ * gamma = (1 + a) / (1 - a), so every quantile is answered within a relative error of
+ * a = {@value #RELATIVE_ACCURACY}. Values below 1 share a zero bucket and values above
+ * the last bucket (about 9 days in milliseconds) are counted in it. Memory is fixed at
+ * {@value #BUCKETS} counters. Adding is a single atomic increment; two sketches merge by
+ * adding their counters.</p>
+ */
+final class QuantileSketch {
+
+    static final double RELATIVE_ACCURACY = 0.02;
+    static final int BUCKETS = 512;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder zeroCount = new LongAdder();
+    private final LongAdder count = new LongAdder();
+
+    void add(double value) {
+        if (value < 1) {
+            zeroCount.increment();
+        } else {
+            counts.incrementAndGet(bucketOf(value));
+        }
+        count.increment();
+    }
+
+    long count() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the value at quantile q (0 to 1), or null if the sketch is empty.
+     */
+    Double quantile(double q) {
+        long total = zeroCount.sum();
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return null;
+        }
+
+        long rank = (long) Math.floor(q * (total - 1));
+        long seen = zeroCount.sum();
+        if (rank < seen) {
+            return 0.0;
+        }
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (rank < seen) {
+                // Midpoint of the bucket in relative terms
+                return 2 * Math.pow(GAMMA, i) / (GAMMA + 1);
+            }
+        }
+        return 2 * Math.pow(GAMMA, BUCKETS - 1) / (GAMMA + 1);
+    }
+
+    void merge(long otherZeroCount, Map<Integer, Long> otherBuckets) {
+        zeroCount.add(otherZeroCount);
+        long added = otherZeroCount;
+        for (Map.Entry<Integer, Long> bucket : otherBuckets.entrySet()) {
+            int index = bucket.getKey();
+            if (index < 0 || index >= BUCKETS) {
+                throw new IllegalArgumentException("Bucket out of range: " + index);
+            }
+            counts.addAndGet(index, bucket.getValue());
+            added += bucket.getValue();
+        }
+        count.add(added);
+    }
+
+    long zeroCount() {
+        return zeroCount.sum();
+    }
+
+    // Non-empty buckets only, so sparse sketches stay small on the wire
+    Map<Integer, Long> buckets() {
+        Map<Integer, Long> buckets = new TreeMap<>();
+        for (int i = 0; i < BUCKETS; i++) {
+            long bucketCount = counts.get(i);
+            if (bucketCount != 0) {
+                buckets.put(i, bucketCount);
+            }
+        }
+        return buckets;
+    }
+
+    private static int bucketOf(double value) {
+        return Math.min(BUCKETS - 1, (int) Math.ceil(Math.log(value) / LOG_GAMMA));
+    }
+}
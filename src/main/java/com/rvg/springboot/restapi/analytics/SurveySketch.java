@@ -0,0 +1,95 @@
+package com.rvg.springboot.restapi.analytics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.rvg.springboot.restapi.analytics.AnalyticsService.AnswerTimeSketch;
+import com.rvg.springboot.restapi.analytics.AnalyticsService.SketchSnapshot;
+
+/**
+ * The sketches of one survey: a {@link HyperLogLog} of respondent IDs and a
+ * {@link QuantileSketch} of answer times per question.
+ *
+ * <p>Memory is fixed per survey and per question, independent of the number of
+ * submissions. All updates are lock-free.</p>
+ */
+class SurveySketch {
+
+    private final String surveyId;
+    private final HyperLogLog respondents;
+    private final LongAdder submissions = new LongAdder();
+    private final ConcurrentMap<String, QuantileSketch> answerTimes = new ConcurrentHashMap<>();
+
+    SurveySketch(String surveyId, int precision) {
+        this.surveyId = surveyId;
+        this.respondents = new HyperLogLog(precision);
+    }
+
+    void add(String respondentId, Map<String, Long> answerTimesByQuestion) {
+        respondents.add(HyperLogLog.hash(respondentId));
+        submissions.increment();
+        answerTimesByQuestion.forEach((questionId, millis) ->
+                answerTimes.computeIfAbsent(questionId, id -> new QuantileSketch()).add(millis));
+    }
+
+    String surveyId() {
+        return surveyId;
+    }
+
+    long submissions() {
+        return submissions.sum();
+    }
+
+    long distinctRespondents() {
+        return respondents.estimate();
+    }
+
+    Map<String, QuantileSketch> answerTimes() {
+        return answerTimes;
+    }
+
+    /**
+     * Adds the sketches of another node. The distinct count is unaffected by merging the
+     * same snapshot twice, but submission and answer time counts add up, so each node's
+     * snapshot must be merged once.
+     *
+     * @throws IllegalArgumentException if the snapshot is of another survey or was taken
+     *                                  with different parameters
+     */
+    void merge(SketchSnapshot snapshot) {
+        if (snapshot.surveyId() != null && !snapshot.surveyId().equals(surveyId)) {
+            throw new IllegalArgumentException("Sketch of survey " + snapshot.surveyId() + " cannot be merged into "
+                    + surveyId);
+        }
+        if (snapshot.registers() == null) {
+            throw new IllegalArgumentException("Sketch has no registers");
+        }
+        if (snapshot.precision() != respondents.precision()) {
+            throw new IllegalArgumentException("Sketch precision " + snapshot.precision() + " does not match "
+                    + respondents.precision());
+        }
+        respondents.merge(HyperLogLog.of(snapshot.precision(), snapshot.registers()));
+        submissions.add(snapshot.submissions());
+
+        if (snapshot.answerTimes() != null) {
+            snapshot.answerTimes().forEach((questionId, sketch) -> {
+                if (sketch.relativeAccuracy() != QuantileSketch.RELATIVE_ACCURACY) {
+                    throw new IllegalArgumentException("Sketch relative accuracy " + sketch.relativeAccuracy()
+                            + " does not match " + QuantileSketch.RELATIVE_ACCURACY);
+                }
+                answerTimes.computeIfAbsent(questionId, id -> new QuantileSketch())
+                        .merge(sketch.zeroCount(), sketch.buckets() == null ? Map.of() : sketch.buckets());
+            });
+        }
+    }
+
+    SketchSnapshot snapshot() {
+        Map<String, AnswerTimeSketch> times = new LinkedHashMap<>();
+        answerTimes.forEach((questionId, sketch) -> times.put(questionId,
+                new AnswerTimeSketch(QuantileSketch.RELATIVE_ACCURACY, sketch.zeroCount(), sketch.buckets())));
+        return new SketchSnapshot(surveyId, submissions.sum(), respondents.precision(), respondents.toBytes(), times);
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ * Endpoint through which cluster peers invalidate cached copies of a survey.
+ *
+ * <p>Endpoint:</p>
+ * <ul>
+ *   <li>POST /cluster/invalidations/{surveyId} - Drop cached responses of the survey.</li>
+ * </ul>
+ *
+ * <p>The endpoint is not behind basic authentication; instead the caller must present the
+ * shared {@code survey.cluster.token} in the {@code X-Cluster-Token} header.</p>
+ *
+ * @author rvega
+ */
+package com.rvg.springboot.restapi.cluster;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+@RequestMapping("/cluster/invalidations")
+@ConditionalOnProperty(name = "survey.cluster.enabled", havingValue = "true")
+public class ClusterInvalidationResource {
+
+    private final ClusterMembership membership;
+    private final RemoteSurveyCache cache;
+
+    public ClusterInvalidationResource(ClusterMembership membership, RemoteSurveyCache cache) {
+        this.membership = membership;
+        this.cache = cache;
+    }
+
+    @RequestMapping(value = "/{surveyId}", method = RequestMethod.POST)
+    public ResponseEntity<Void> invalidateSurvey(@PathVariable String surveyId,
+            @RequestHeader(value = ClusterRoutingFilter.TOKEN_HEADER, required = false) String token) {
+        if (!membership.isValidToken(token)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Invalid cluster token");
+        }
+
+        cache.invalidate(surveyId);
+        return ResponseEntity.noContent().build();
+    }
+}
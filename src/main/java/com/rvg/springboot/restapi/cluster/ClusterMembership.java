@@ -0,0 +1,73 @@
+/**
+ * Static cluster membership for cluster mode ({@code survey.cluster.enabled=true}).
+ *
+ * <p>Surveys are partitioned across the nodes listed in {@code survey.cluster.nodes}
+ * (base URLs, comma separated) with a {@link ConsistentHashRing}. {@code survey.cluster.self}
+ * must be this node's own entry from that list. Peers authenticate forwarded requests and
+ * cache invalidations with the shared secret {@code survey.cluster.token}.</p>
+ *
+ * @author rvega
+ */
+package com.rvg.springboot.restapi.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "survey.cluster.enabled", havingValue = "true")
+public class ClusterMembership {
+
+    private final String self;
+    private final String token;
+    private final ConsistentHashRing ring;
+    private final List<String> peers;
+
+    public ClusterMembership(@Value("${survey.cluster.self}") String self,
+            @Value("${survey.cluster.nodes}") String nodes,
+            @Value("${survey.cluster.virtual-nodes:128}") int virtualNodes,
+            @Value("${survey.cluster.token}") String token) {
+        List<String> nodeList = Arrays.stream(nodes.split(",")).map(String::trim).filter(node -> !node.isEmpty())
+                .toList();
+        if (!nodeList.contains(self)) {
+            throw new IllegalStateException("survey.cluster.self (" + self + ") is not in survey.cluster.nodes");
+        }
+
+        this.self = self;
+        this.token = token;
+        this.ring = new ConsistentHashRing(nodeList, virtualNodes);
+        this.peers = nodeList.stream().filter(node -> !node.equals(self)).toList();
+    }
+
+    public String getSelf() {
+        return self;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public List<String> getPeers() {
+        return peers;
+    }
+
+    // Returns the base URL of the node owning a survey
+    public String ownerOf(String surveyId) {
+        return ring.nodeFor(surveyId);
+    }
+
+    public boolean isLocal(String surveyId) {
+        return self.equals(ownerOf(surveyId));
+    }
+
+    // Constant-time comparison of the shared cluster secret; an empty secret never matches
+    public boolean isValidToken(String candidate) {
+        return candidate != null && !candidate.isEmpty() && !token.isEmpty()
+                && MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), candidate.getBytes(StandardCharsets.UTF_8));
+    }
+}
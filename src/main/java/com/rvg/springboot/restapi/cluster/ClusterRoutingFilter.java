@@ -0,0 +1,508 @@
+/**
+ * Routes survey requests to the cluster node that owns the survey.
+ *
+ * <p>For every request under {@code /surveys/{surveyId}} the owning node is looked up in
+ * {@link ClusterMembership}:</p>
+ * <ul>
+ *   <li>Local surveys are served by this node. Successful writes that change the survey or
+ *       its questions, schedule or quiz are broadcast to the peers so they drop cached
+ *       copies of the survey. Response submissions are not.</li>
+ *   <li>Reads of remote surveys are answered from {@link RemoteSurveyCache} when possible,
+ *       otherwise forwarded to the owner. Small JSON 200 responses about the survey's state
+ *       are cached; responses, exports, leaderboards and analytics are streamed through
+ *       without being buffered.</li>
+ *   <li>Writes of remote surveys are forwarded to the owner.</li>
+ * </ul>
+ *
+ * <p>{@code GET /surveys} is answered from every node: this node lists the surveys it owns
+ * and asks each peer for the surveys that peer owns.</p>
+ *
+ * <p>{@code POST /questions:batchGet} may reference surveys of several nodes. The references
+ * are grouped by owner, each owner is sent the batch of its own references, and the results
+ * are merged back into request order. Batches the local controller rejects, e.g. because
+ * they are too large or contain null elements, are handed to it unsplit.</p>
+ *
+ * <p>The filter runs after Spring Security, so requests are authenticated before they are
+ * forwarded; the owner authenticates them again with the original Authorization header.
+ * Forwarded requests carry the {@code X-Survey-Forwarded} header together with the shared
+ * cluster token and are always handled locally, which prevents forwarding loops while the
+ * nodes disagree about membership. Without a valid token the header is ignored, so clients
+ * cannot make a node serve a survey it does not own.</p>
+ *
+ * @author rvega
+ */
+package com.rvg.springboot.restapi.cluster;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.rvg.springboot.restapi.cluster.RemoteSurveyCache.CachedResponse;
+import com.rvg.springboot.restapi.survey.QuestionBatchResource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+
+@Component
+@ConditionalOnProperty(name = "survey.cluster.enabled", havingValue = "true")
+public class ClusterRoutingFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterRoutingFilter.class);
+
+    static final String FORWARDED_HEADER = "X-Survey-Forwarded";
+    static final String TOKEN_HEADER = "X-Cluster-Token";
+
+    private static final String SURVEYS_PREFIX = "/surveys/";
+    private static final String SURVEYS_PATH = "/surveys";
+    private static final String BATCH_GET_PATH = "/questions:batchGet";
+
+    // Sub-resources that make up a survey's state; they are cached, and changing them invalidates caches
+    private static final Set<String> SURVEY_STATE_RESOURCES = Set.of("questions", "versions", "quiz", "schedule");
+
+    // Headers managed by the HTTP client or meaningful for a single hop only
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of("host", "connection", "content-length", "expect",
+            "upgrade", "transfer-encoding", "keep-alive", "te", "trailer", "proxy-authorization",
+            "proxy-connection");
+
+    private final ClusterMembership membership;
+    private final RemoteSurveyCache cache;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+
+    public ClusterRoutingFilter(ClusterMembership membership, RemoteSurveyCache cache, ObjectMapper objectMapper) {
+        this.membership = membership;
+        this.cache = cache;
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(2))
+                .build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return surveyIdOf(request) == null && !isSurveyList(request) && !isBatchGet(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean fromPeer = request.getHeader(FORWARDED_HEADER) != null
+                && membership.isValidToken(request.getHeader(TOKEN_HEADER));
+
+        if (isSurveyList(request)) {
+            if (fromPeer || !"GET".equals(request.getMethod())) {
+                filterChain.doFilter(request, response);
+            } else {
+                listClusterSurveys(request, response, filterChain);
+            }
+            return;
+        }
+
+        if (isBatchGet(request)) {
+            if (fromPeer) {
+                filterChain.doFilter(request, response);
+            } else {
+                batchGetClusterQuestions(request, response, filterChain);
+            }
+            return;
+        }
+
+        String surveyId = surveyIdOf(request);
+        boolean read = isRead(request);
+        boolean surveyState = isSurveyState(request, surveyId);
+
+        if (fromPeer || membership.isLocal(surveyId)) {
+            filterChain.doFilter(request, response);
+            if (!read && surveyState && response.getStatus() < 400) {
+                broadcastInvalidation(surveyId);
+            }
+            return;
+        }
+
+        String requestKey = request.getMethod() + " " + request.getRequestURI()
+                + (request.getQueryString() != null ? "?" + request.getQueryString() : "");
+        if (read && surveyState) {
+            CachedResponse cached = cache.get(surveyId, requestKey);
+            if (cached != null) {
+                write(response, cached.status(), Map.of("Content-Type", List.of(cached.contentType())),
+                        cached.body());
+                return;
+            }
+        }
+
+        HttpResponse<InputStream> forwarded = forward(request, membership.ownerOf(surveyId));
+        if (forwarded == null) {
+            response.sendError(HttpStatus.BAD_GATEWAY.value(), "Survey owner is not reachable");
+            return;
+        }
+
+        try (InputStream body = forwarded.body()) {
+            if (!read && surveyState) {
+                cache.invalidate(surveyId);
+            }
+
+            String contentType = forwarded.headers().firstValue("Content-Type").orElse("");
+            if (read && surveyState && forwarded.statusCode() == HttpStatus.OK.value() && isJson(contentType)) {
+                // Read one byte more than fits in the cache to tell whether the body does
+                byte[] head = body.readNBytes(cache.getMaximumEntryBytes() + 1);
+                if (head.length <= cache.getMaximumEntryBytes()) {
+                    cache.put(surveyId, requestKey, new CachedResponse(forwarded.statusCode(), contentType, head));
+                    write(response, forwarded.statusCode(), forwarded.headers().map(), head);
+                    return;
+                }
+                stream(response, forwarded, head, body);
+                return;
+            }
+
+            stream(response, forwarded, new byte[0], body);
+        }
+    }
+
+    // Returns the survey ID of requests under /surveys/{surveyId}, or null for other requests
+    static String surveyIdOf(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (!path.startsWith(SURVEYS_PREFIX)) {
+            return null;
+        }
+
+        int end = path.indexOf('/', SURVEYS_PREFIX.length());
+        String surveyId = end < 0 ? path.substring(SURVEYS_PREFIX.length())
+                : path.substring(SURVEYS_PREFIX.length(), end);
+
+        // Custom methods such as /surveys/{surveyId}:clone address the survey itself
+        int customMethod = surveyId.indexOf(':');
+        if (customMethod >= 0) {
+            surveyId = surveyId.substring(0, customMethod);
+        }
+        return surveyId.isEmpty() ? null : surveyId;
+    }
+
+    // Whether the request addresses the survey itself or one of the sub-resources that make up its state
+    private static boolean isSurveyState(HttpServletRequest request, String surveyId) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String rest = path.substring(SURVEYS_PREFIX.length() + surveyId.length());
+        if (rest.isEmpty() || rest.equals("/") || rest.startsWith(":")) {
+            return true;
+        }
+        int end = rest.indexOf('/', 1);
+        return SURVEY_STATE_RESOURCES.contains(end < 0 ? rest.substring(1) : rest.substring(1, end));
+    }
+
+    private static boolean isJson(String contentType) {
+        try {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            return MediaType.APPLICATION_JSON.isCompatibleWith(mediaType)
+                    || "json".equals(mediaType.getSubtypeSuffix());
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static boolean isSurveyList(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.equals(SURVEYS_PATH) || path.equals(SURVEYS_PREFIX);
+    }
+
+    private static boolean isBatchGet(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.equals(BATCH_GET_PATH) && "POST".equals(request.getMethod());
+    }
+
+    private static boolean isRead(HttpServletRequest request) {
+        return "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod());
+    }
+
+    // The caller must close the response body
+    private HttpResponse<InputStream> forward(HttpServletRequest request, String owner) throws IOException {
+        return forward(request, owner, request.getInputStream().readAllBytes());
+    }
+
+    // Forward the request with the given body instead of its own
+    private HttpResponse<InputStream> forward(HttpServletRequest request, String owner, byte[] body)
+            throws IOException {
+        String target = owner + request.getRequestURI()
+                + (request.getQueryString() != null ? "?" + request.getQueryString() : "");
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(target))
+                .timeout(Duration.ofSeconds(10))
+                .method(request.getMethod(), body.length == 0 ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofByteArray(body));
+        for (String name : Collections.list(request.getHeaderNames())) {
+            if (HOP_BY_HOP_HEADERS.contains(name.toLowerCase(Locale.ROOT))
+                    || FORWARDED_HEADER.equalsIgnoreCase(name) || TOKEN_HEADER.equalsIgnoreCase(name)) {
+                continue;
+            }
+            for (String value : Collections.list(request.getHeaders(name))) {
+                builder.header(name, value);
+            }
+        }
+        builder.header(FORWARDED_HEADER, membership.getSelf());
+        builder.header(TOKEN_HEADER, membership.getToken());
+
+        try {
+            return httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+        } catch (IOException e) {
+            log.warn("Forwarding {} to {} failed", request.getRequestURI(), owner, e);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    // Merge the surveys this node owns with the surveys each peer owns, ordered by ID like a single node's list
+    private void listClusterSurveys(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ContentCachingResponseWrapper local = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, local);
+        if (local.getStatus() != HttpStatus.OK.value()) {
+            local.copyBodyToResponse();
+            return;
+        }
+
+        List<JsonNode> surveys = new ArrayList<>();
+        addOwnedSurveys(surveys, local.getContentAsByteArray(), membership.getSelf());
+        for (String peer : membership.getPeers()) {
+            HttpResponse<InputStream> forwarded = forward(request, peer);
+            if (forwarded == null || forwarded.statusCode() != HttpStatus.OK.value()) {
+                if (forwarded != null) {
+                    forwarded.body().close();
+                }
+                local.resetBuffer();
+                response.sendError(HttpStatus.BAD_GATEWAY.value(), "Cluster node " + peer + " is not reachable");
+                return;
+            }
+            try (InputStream body = forwarded.body()) {
+                addOwnedSurveys(surveys, body.readAllBytes(), peer);
+            }
+        }
+        surveys.sort(Comparator.comparing(survey -> survey.path("id").asText()));
+
+        byte[] body = objectMapper.writeValueAsBytes(surveys);
+        local.resetBuffer();
+        write(response, HttpStatus.OK.value(), Map.of("Content-Type", List.of(MediaType.APPLICATION_JSON_VALUE)), body);
+    }
+
+    // Ask each owner for its share of the batch and merge the results in request order
+    private void batchGetClusterQuestions(HttpServletRequest request, HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+        byte[] body = request.getInputStream().readAllBytes();
+        Map<String, List<Integer>> positionsByOwner = groupByOwner(body);
+        if (positionsByOwner == null || Set.of(membership.getSelf()).containsAll(positionsByOwner.keySet())) {
+            filterChain.doFilter(new BodyRequest(request, body), response);
+            return;
+        }
+
+        JsonNode references = objectMapper.readTree(body);
+        JsonNode[] results = new JsonNode[references.size()];
+        for (Map.Entry<String, List<Integer>> entry : positionsByOwner.entrySet()) {
+            String owner = entry.getKey();
+            List<Integer> positions = entry.getValue();
+            ArrayNode share = objectMapper.createArrayNode();
+            positions.forEach(position -> share.add(references.get(position)));
+            byte[] shareBody = objectMapper.writeValueAsBytes(share);
+
+            JsonNode ownerResults;
+            if (owner.equals(membership.getSelf())) {
+                ContentCachingResponseWrapper local = new ContentCachingResponseWrapper(response);
+                filterChain.doFilter(new BodyRequest(request, shareBody), local);
+                if (local.getStatus() != HttpStatus.OK.value()) {
+                    local.copyBodyToResponse();
+                    return;
+                }
+                ownerResults = objectMapper.readTree(local.getContentAsByteArray());
+                local.resetBuffer();
+            } else {
+                HttpResponse<InputStream> forwarded = forward(request, owner, shareBody);
+                if (forwarded == null) {
+                    response.sendError(HttpStatus.BAD_GATEWAY.value(), "Cluster node " + owner + " is not reachable");
+                    return;
+                }
+                try (InputStream ownerBody = forwarded.body()) {
+                    if (forwarded.statusCode() != HttpStatus.OK.value()) {
+                        stream(response, forwarded, new byte[0], ownerBody);
+                        return;
+                    }
+                    ownerResults = objectMapper.readTree(ownerBody);
+                }
+            }
+
+            for (int i = 0; i < positions.size(); i++) {
+                results[positions.get(i)] = ownerResults.get(i);
+            }
+        }
+
+        write(response, HttpStatus.OK.value(), Map.of("Content-Type", List.of(MediaType.APPLICATION_JSON_VALUE)),
+                objectMapper.writeValueAsBytes(results));
+    }
+
+    // Positions of the references in the batch by owner, or null if the local controller should reject the batch
+    private Map<String, List<Integer>> groupByOwner(byte[] body) {
+        JsonNode references;
+        try {
+            references = objectMapper.readTree(body);
+        } catch (IOException e) {
+            return null;
+        }
+        if (references == null || !references.isArray()
+                || references.size() > QuestionBatchResource.MAX_BATCH_SIZE) {
+            return null;
+        }
+
+        Map<String, List<Integer>> positionsByOwner = new LinkedHashMap<>();
+        for (int i = 0; i < references.size(); i++) {
+            if (!references.get(i).isObject()) {
+                return null;
+            }
+            // References without a survey ID are answered locally as not found
+            JsonNode surveyId = references.get(i).path("surveyId");
+            String owner = surveyId.isTextual() ? membership.ownerOf(surveyId.asText()) : membership.getSelf();
+            positionsByOwner.computeIfAbsent(owner, key -> new ArrayList<>()).add(i);
+        }
+        return positionsByOwner;
+    }
+
+    // Every node may hold copies of surveys it does not own, e.g. from the seed data; only the owner's copy counts
+    private void addOwnedSurveys(List<JsonNode> surveys, byte[] body, String node) throws IOException {
+        for (JsonNode survey : objectMapper.readTree(body)) {
+            if (node.equals(membership.ownerOf(survey.path("id").asText()))) {
+                surveys.add(survey);
+            }
+        }
+    }
+
+    // Tell every peer to drop its cached copies of the survey; failures only cost staleness until the TTL
+    private void broadcastInvalidation(String surveyId) {
+        for (String peer : membership.getPeers()) {
+            HttpRequest invalidation = HttpRequest.newBuilder(URI.create(peer + "/cluster/invalidations/" + surveyId))
+                    .timeout(Duration.ofSeconds(2))
+                    .header(TOKEN_HEADER, membership.getToken())
+                    .POST(HttpRequest.BodyPublishers.noBody())
+                    .build();
+            httpClient.sendAsync(invalidation, HttpResponse.BodyHandlers.discarding())
+                    .exceptionally(e -> {
+                        log.debug("Invalidation of {} on {} failed", surveyId, peer, e);
+                        return null;
+                    });
+        }
+    }
+
+    private static void write(HttpServletResponse response, int status, Map<String, List<String>> headers,
+            byte[] body) throws IOException {
+        writeHeaders(response, status, headers);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    // Copy the owner's response as it arrives, so large bodies such as exports are never held in memory
+    private static void stream(HttpServletResponse response, HttpResponse<InputStream> forwarded, byte[] head,
+            InputStream rest) throws IOException {
+        writeHeaders(response, forwarded.statusCode(), forwarded.headers().map());
+        response.getOutputStream().write(head);
+        rest.transferTo(response.getOutputStream());
+    }
+
+    // A request whose body was already read, replayed from memory
+    private static class BodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        BodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    getCharacterEncoding() != null ? getCharacterEncoding() : "UTF-8"));
+        }
+    }
+
+    private static void writeHeaders(HttpServletResponse response, int status, Map<String, List<String>> headers) {
+        response.setStatus(status);
+        headers.forEach((name, values) -> {
+            if (name.startsWith(":") || HOP_BY_HOP_HEADERS.contains(name.toLowerCase(Locale.ROOT))
+                    || values.isEmpty()) {
+                return;
+            }
+            // Replace headers this node already set (e.g. security headers) with the owner's
+            response.setHeader(name, values.get(0));
+            values.stream().skip(1).forEach(value -> response.addHeader(name, value));
+        });
+    }
+}
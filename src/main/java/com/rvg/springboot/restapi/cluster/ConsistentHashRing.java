@@ -0,0 +1,76 @@
+package com.rvg.springboot.restapi.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Consistent-hash ring that maps keys (survey IDs) to cluster nodes.
+ *
+ * <p>Each node is placed on the ring at several points ("virtual nodes") so keys spread
+ * evenly, and adding or removing a node only moves the keys adjacent to its points.
+ * The ring is immutable and safe to share between threads.</p>
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ * {@code
+ * ConsistentHashRing ring = new ConsistentHashRing(List.of("http://localhost:8080", "http://localhost:8081"), 128);
+ * String owner = ring.nodeFor("Survey1");
+ * }
+ * </pre>
+ *
+ * @author rvega
+ */
+public class ConsistentHashRing {
+
+    private final NavigableMap<Long, String> ring = new TreeMap<>();
+    private final List<String> nodes;
+
+    public ConsistentHashRing(Collection<String> nodes, int virtualNodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("A hash ring needs at least one node");
+        }
+
+        this.nodes = List.copyOf(nodes);
+        for (String node : this.nodes) {
+            for (int i = 0; i < Math.max(1, virtualNodes); i++) {
+                ring.put(hash(node + "#" + i), node);
+            }
+        }
+    }
+
+    public List<String> getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns the node owning a key: the first node point at or after the key's hash,
+     * wrapping around the ring.
+     *
+     * @param key the key to place, e.g. a survey ID
+     * @return the owning node
+     */
+    public String nodeFor(String key) {
+        Map.Entry<Long, String> entry = ring.ceilingEntry(hash(key));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    // First 8 bytes of the MD5 digest: stable across JVMs and well distributed
+    private static long hash(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(value.getBytes(StandardCharsets.UTF_8));
+            long hash = 0;
+            for (int i = 0; i < 8; i++) {
+                hash = (hash << 8) | (digest[i] & 0xFF);
+            }
+            return hash;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is not available", e);
+        }
+    }
+}
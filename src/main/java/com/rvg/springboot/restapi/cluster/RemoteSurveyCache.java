@@ -0,0 +1,73 @@
+/**
+ * Read cache for responses about surveys owned by other cluster nodes.
+ *
+ * <p>The cache is bounded by the bytes it holds, {@code survey.cluster.cache-max-size}
+ * (default 64MB), and responses larger than {@code survey.cluster.cache-max-entry-size}
+ * (default 256KB) are never cached. Entries expire after {@code survey.cluster.cache-ttl},
+ * which bounds staleness should an invalidation message be lost. An invalidation drops
+ * every cached response of the survey at once.</p>
+ *
+ * @author rvega
+ */
+package com.rvg.springboot.restapi.cluster;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+@Component
+@ConditionalOnProperty(name = "survey.cluster.enabled", havingValue = "true")
+public class RemoteSurveyCache {
+
+    /**
+     * A cached HTTP response.
+     */
+    public record CachedResponse(int status, String contentType, byte[] body) {
+    }
+
+    private record Key(String surveyId, String requestKey) {
+    }
+
+    private final int maximumEntryBytes;
+    private final Cache<Key, CachedResponse> responses;
+
+    public RemoteSurveyCache(@Value("${survey.cluster.cache-max-size:64MB}") DataSize maximumSize,
+            @Value("${survey.cluster.cache-max-entry-size:256KB}") DataSize maximumEntrySize,
+            @Value("${survey.cluster.cache-ttl:60s}") Duration timeToLive) {
+        this.maximumEntryBytes = Math.toIntExact(maximumEntrySize.toBytes());
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(maximumSize.toBytes())
+                .weigher((Key key, CachedResponse response) -> response.body().length + 2 * key.requestKey().length())
+                .expireAfterWrite(timeToLive)
+                .build();
+    }
+
+    /**
+     * Returns the size of the largest response body that is cached.
+     */
+    public int getMaximumEntryBytes() {
+        return maximumEntryBytes;
+    }
+
+    public CachedResponse get(String surveyId, String requestKey) {
+        return responses.getIfPresent(new Key(surveyId, requestKey));
+    }
+
+    // Responses larger than the maximum entry size are ignored
+    public void put(String surveyId, String requestKey, CachedResponse response) {
+        if (response.body().length <= maximumEntryBytes) {
+            responses.put(new Key(surveyId, requestKey), response);
+        }
+    }
+
+    // Scans the cache; invalidations are only sent when a survey's state changes, not on every request
+    public void invalidate(String surveyId) {
+        responses.asMap().keySet().removeIf(key -> key.surveyId().equals(surveyId));
+    }
+}
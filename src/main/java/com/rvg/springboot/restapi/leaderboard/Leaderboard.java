@@ -0,0 +1,169 @@
+package com.rvg.springboot.restapi.leaderboard;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Live ranking of the respondents of one survey by their best score.
+ *
+ * <p>Three structures are kept in step, all safe for concurrent use without a lock over
+ * the whole leaderboard:</p>
+ * <ul>
+ *   <li>the best entry per respondent in a {@link ConcurrentHashMap}; its per-key
+ *       {@code compute} serializes updates of the same respondent only,</li>
+ *   <li>all entries ordered by score in a {@link ConcurrentSkipListSet}, so the top N are
+ *       read in O(log n + N),</li>
+ *   <li>the number of respondents per score in a Fenwick tree of atomic counters, so a rank
+ *       is computed in O(log s) for s possible scores.</li>
+ * </ul>
+ *
+ * <p>Respondents with the same score share a rank ("1224" ranking). While a respondent's
+ * entry is being replaced, readers may see either the old or the new entry.</p>
+ */
+class Leaderboard {
+
+    /**
+     * A respondent's best result.
+     *
+     * @param respondentId the respondent
+     * @param score        the number of correct answers
+     * @param achievedAt   when the score was first reached, in epoch milliseconds
+     */
+    record Entry(String respondentId, int score, long achievedAt) {
+    }
+
+    // Best score first, then whoever reached it first
+    private static final Comparator<Entry> RANKING = Comparator.comparingInt(Entry::score).reversed()
+            .thenComparingLong(Entry::achievedAt)
+            .thenComparing(Entry::respondentId);
+
+    private final ConcurrentMap<String, Entry> bestByRespondent = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Entry> ranking = new ConcurrentSkipListSet<>(RANKING);
+
+    // Updates share the read lock; only growing the score range takes the write lock
+    private final StampedLock scoreRangeLock = new StampedLock();
+    private volatile AtomicLongArray respondentsPerScore;
+
+    Leaderboard(int expectedMaxScore) {
+        this.respondentsPerScore = new AtomicLongArray(Integer.highestOneBit(Math.max(expectedMaxScore, 15)) * 2 + 1);
+    }
+
+    /**
+     * Records a result; only improvements on the respondent's best score change the board.
+     */
+    void record(String respondentId, int score, long timestamp) {
+        if (score + 1 >= respondentsPerScore.length()) {
+            growScoreRange(score);
+        }
+
+        bestByRespondent.compute(respondentId, (id, best) -> {
+            if (best != null && best.score() >= score) {
+                return best;
+            }
+
+            Entry entry = new Entry(id, score, timestamp);
+            long stamp = scoreRangeLock.readLock();
+            try {
+                if (best != null) {
+                    add(best.score(), -1);
+                }
+                add(score, 1);
+            } finally {
+                scoreRangeLock.unlockRead(stamp);
+            }
+
+            // Add before removing, so readers always find the respondent
+            ranking.add(entry);
+            if (best != null) {
+                ranking.remove(best);
+            }
+            return entry;
+        });
+    }
+
+    /**
+     * Returns the best entries, best first.
+     */
+    List<Entry> top(int count) {
+        List<Entry> top = new ArrayList<>(Math.min(count, 64));
+        Set<String> seen = new HashSet<>();
+        Iterator<Entry> entries = ranking.iterator();
+        while (top.size() < count && entries.hasNext()) {
+            Entry entry = entries.next();
+            // A respondent being updated briefly has its old and new entry in the ranking
+            if (seen.add(entry.respondentId())) {
+                top.add(entry);
+            }
+        }
+        return top;
+    }
+
+    Entry entryOf(String respondentId) {
+        return bestByRespondent.get(respondentId);
+    }
+
+    /**
+     * Returns 1 plus the number of respondents with a higher score.
+     */
+    long rankOf(int score) {
+        long stamp = scoreRangeLock.readLock();
+        try {
+            AtomicLongArray tree = respondentsPerScore;
+            return 1 + prefixSum(tree, tree.length() - 1) - prefixSum(tree, Math.min(score + 1, tree.length() - 1));
+        } finally {
+            scoreRangeLock.unlockRead(stamp);
+        }
+    }
+
+    long respondents() {
+        return bestByRespondent.size();
+    }
+
+    // Fenwick tree over score + 1 (index 0 is unused)
+    private void add(int score, long delta) {
+        AtomicLongArray tree = respondentsPerScore;
+        for (int i = score + 1; i < tree.length(); i += i & -i) {
+            tree.addAndGet(i, delta);
+        }
+    }
+
+    // Number of respondents with a score below the given Fenwick index
+    private static long prefixSum(AtomicLongArray tree, int index) {
+        long sum = 0;
+        for (int i = index; i > 0; i -= i & -i) {
+            sum += tree.get(i);
+        }
+        return sum;
+    }
+
+    // Surveys can gain questions; rebuild the tree with room for higher scores
+    private void growScoreRange(int score) {
+        long stamp = scoreRangeLock.writeLock();
+        try {
+            AtomicLongArray old = respondentsPerScore;
+            if (score + 1 < old.length()) {
+                return;
+            }
+
+            AtomicLongArray grown = new AtomicLongArray(Integer.highestOneBit(score + 1) * 2 + 1);
+            for (int i = 1; i < old.length(); i++) {
+                long count = prefixSum(old, i) - prefixSum(old, i - 1);
+                for (int j = i; j < grown.length(); j += j & -j) {
+                    grown.addAndGet(j, count);
+                }
+            }
+            respondentsPerScore = grown;
+        } finally {
+            scoreRangeLock.unlockWrite(stamp);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * This class is a REST controller for live survey leaderboards.
+ *
+ * Endpoints:
+ * - GET /surveys/{surveyId}/leaderboard?top={n}: Retrieve the n best respondents (default 10),
+ *   ranked by their best number of correct answers, earliest first on ties.
+ * - GET /surveys/{surveyId}/leaderboard/rank/{respondentId}: Retrieve a respondent's rank and score.
+ *
+ * Leaderboards are updated by every submission to /surveys/{surveyId}/responses.
+ *
+ * @author rvega
+ */
+package com.rvg.springboot.restapi.leaderboard;
+
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.rvg.springboot.restapi.leaderboard.LeaderboardService.Standing;
+import com.rvg.springboot.restapi.survey.SurveyService;
+
+@RestController
+@RequestMapping("/surveys/{surveyId}/leaderboard")
+public class LeaderboardResource {
+
+    private static final int MAX_TOP = 1000;
+
+    /**
+     * The top of a leaderboard.
+     *
+     * @param respondents the number of respondents on the leaderboard
+     * @param standings   the best respondents, best first
+     */
+    public record Top(long respondents, List<Standing> standings) {
+    }
+
+    private final LeaderboardService leaderboardService;
+    private final SurveyService surveyService;
+
+    public LeaderboardResource(LeaderboardService leaderboardService, SurveyService surveyService) {
+        this.leaderboardService = leaderboardService;
+        this.surveyService = surveyService;
+    }
+
+    // Mapping HTTP GET requests to the specified URL pattern
+    // The method retrieves the best respondents of the survey
+    @RequestMapping(method = RequestMethod.GET)
+    public Top retrieveTop(@PathVariable String surveyId, @RequestParam(defaultValue = "10") int top) {
+        requireSurvey(surveyId);
+        int count = Math.max(1, Math.min(top, MAX_TOP));
+        return new Top(leaderboardService.respondents(surveyId), leaderboardService.top(surveyId, count));
+    }
+
+    // Mapping HTTP GET requests to the specified URL pattern
+    // The method retrieves the rank of a respondent
+    @RequestMapping(value = "/rank/{respondentId}", method = RequestMethod.GET)
+    public Standing retrieveRank(@PathVariable String surveyId, @PathVariable String respondentId) {
+        requireSurvey(surveyId);
+        Standing standing = leaderboardService.standingOf(surveyId, respondentId);
+        if (standing == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Respondent has no score");
+        }
+        return standing;
+    }
+
+    private void requireSurvey(String surveyId) {
+        if (surveyService.retrieveSurveyById(surveyId) == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Survey not found");
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.rvg.springboot.restapi.leaderboard;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.stereotype.Service;
+
+import com.rvg.springboot.restapi.response.Submission;
+import com.rvg.springboot.restapi.response.SubmissionListener;
+import com.rvg.springboot.restapi.survey.Question;
+import com.rvg.springboot.restapi.survey.Survey;
+
+/**
+ * Scores submissions against each question's correct answer and keeps a
+ * {@link Leaderboard} per survey.
+ *
+ * <p>Leaderboards are kept in memory, start empty after a restart and are dropped with
+ * their survey.</p>
+ *
+ * @author rvega
+ */
+@Service
+public class LeaderboardService implements SubmissionListener {
+
+    /**
+     * A respondent's position on a leaderboard.
+     *
+     * @param rank         1 plus the number of respondents with a better score
+     * @param respondentId the respondent
+     * @param score        the respondent's best number of correct answers
+     * @param achievedAt   when the score was first reached, in epoch milliseconds
+     */
+    public record Standing(long rank, String respondentId, int score, long achievedAt) {
+    }
+
+    private final ConcurrentMap<String, Leaderboard> leaderboards = new ConcurrentHashMap<>();
+
+    @Override
+    public void onSubmission(Survey survey, Submission submission, long timestamp) {
+        int score = score(survey, submission.answers());
+        leaderboards.computeIfAbsent(survey.getId(), id -> new Leaderboard(survey.getQuestions().size()))
+                .record(submission.respondentId(), score, timestamp);
+    }
+
+    @Override
+    public void onSurveyRemoved(String surveyId) {
+        leaderboards.remove(surveyId);
+    }
+
+    /**
+     * Returns the best respondents of a survey, best first.
+     *
+     * @param surveyId the ID of the survey
+     * @param count    the maximum number of respondents to return
+     */
+    public List<Standing> top(String surveyId, int count) {
+        Leaderboard leaderboard = leaderboards.get(surveyId);
+        if (leaderboard == null) {
+            return List.of();
+        }
+
+        return leaderboard.top(count).stream().map(entry -> standing(leaderboard, entry)).toList();
+    }
+
+    /**
+     * Returns a respondent's standing, or null if the respondent has not submitted answers.
+     */
+    public Standing standingOf(String surveyId, String respondentId) {
+        Leaderboard leaderboard = leaderboards.get(surveyId);
+        Leaderboard.Entry entry = leaderboard == null ? null : leaderboard.entryOf(respondentId);
+        return entry == null ? null : standing(leaderboard, entry);
+    }
+
+    /**
+     * Returns the number of respondents on a survey's leaderboard.
+     */
+    public long respondents(String surveyId) {
+        Leaderboard leaderboard = leaderboards.get(surveyId);
+        return leaderboard == null ? 0 : leaderboard.respondents();
+    }
+
+    private static Standing standing(Leaderboard leaderboard, Leaderboard.Entry entry) {
+        return new Standing(leaderboard.rankOf(entry.score()), entry.respondentId(), entry.score(),
+                entry.achievedAt());
+    }
+
+    // Number of answers whose option is the question's correct answer
+    static int score(Survey survey, Map<String, Integer> answers) {
+        int correct = 0;
+        for (Map.Entry<String, Integer> answer : answers.entrySet()) {
+            Question question = survey.findQuestion(answer.getKey());
+            if (question != null && question.getOptions() != null
+                    && question.getOptions().get(answer.getValue()).equals(question.getCorrectAnswer())) {
+                correct++;
+            }
+        }
+        return correct;
+    }
+}
@@ -0,0 +1,72 @@
+/**
+ * Servlet filter that writes one structured log line for a sample of requests.
+ *
+ * <p>Logging every request synchronously is expensive, so only a configurable
+ * fraction of requests is logged. The sample rate is read from the
+ * {@code survey.request-logging.sample-rate} property (0.0 = off, 1.0 = every request).
+ * When the rate is 0 the filter is skipped entirely.</p>
+ *
+ * <p>The filter runs before the Spring Security filter chain, so requests rejected with
+ * 401 or 403 are sampled as well.</p>
+ *
+ * <p>Each sampled request produces a single key=value line, for example:</p>
+ * <pre>
+ * {@code
+ * request method=GET uri=/surveys/Survey1 status=200 durationMs=3
+ * }
+ * </pre>
+ *
+ * @author rvega
+ */
+package com.rvg.springboot.restapi.logging;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 10)
+public class SampledRequestLoggingFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(SampledRequestLoggingFilter.class);
+
+    private final double sampleRate;
+
+    public SampledRequestLoggingFilter(@Value("${survey.request-logging.sample-rate:0.0}") double sampleRate) {
+        this.sampleRate = Math.max(0.0, Math.min(1.0, sampleRate));
+    }
+
+    // Skip the filter when sampling is disabled or this request was not sampled
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (sampleRate <= 0.0 || !log.isInfoEnabled()) {
+            return true;
+        }
+        return sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            long durationMs = (System.nanoTime() - start) / 1_000_000;
+            log.info("request method={} uri={} status={} durationMs={}", request.getMethod(),
+                    request.getRequestURI(), response.getStatus(), durationMs);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.rvg.springboot.restapi.profiling;
+
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Marks the start of the handler phase and the completion of a profiled request.
+ */
+class PhaseProfilingInterceptor implements HandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestProfile profile = RequestProfile.of(request);
+        if (profile != null) {
+            profile.handlerStarted(handler instanceof HandlerMethod method ? method.getShortLogMessage()
+                    : handler.getClass().getSimpleName());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+            Exception ex) {
+        RequestProfile profile = RequestProfile.of(request);
+        if (profile != null) {
+            profile.handlerCompleted();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/**
+ * Per-phase request profiling, enabled with {@code survey.profiling.enabled=true}.
+ *
+ * <p>Every request is split into the security, handler and serialization phases. Each
+ * phase is emitted as a Java Flight Recorder event (see {@link RequestEvents}), and
+ * requests slower than {@code survey.profiling.slow-threshold} are kept with their
+ * breakdown in a ring buffer of {@code survey.profiling.slow-samples} entries, served by
+ * {@code GET /profiling/slow-requests}.</p>
+ *
+ * <p>When the property is off none of these beans exist, so requests pay nothing.</p>
+ *
+ * @author rvega
+ */
+package com.rvg.springboot.restapi.profiling;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@ConditionalOnProperty(name = "survey.profiling.enabled", havingValue = "true")
+public class ProfilingConfiguration implements WebMvcConfigurer {
+
+    @Bean
+    public SlowRequestSampler slowRequestSampler(
+            @Value("${survey.profiling.slow-threshold:500ms}") Duration threshold,
+            @Value("${survey.profiling.slow-samples:100}") int capacity) {
+        return new SlowRequestSampler(threshold, capacity);
+    }
+
+    // Wraps the Spring Security filter chain, which is registered at DEFAULT_FILTER_ORDER
+    @Bean
+    public FilterRegistrationBean<RequestProfilingFilter> requestProfilingFilter(SlowRequestSampler sampler) {
+        FilterRegistrationBean<RequestProfilingFilter> registration = new FilterRegistrationBean<>(
+                new RequestProfilingFilter(sampler));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+
+    @Bean
+    public FilterRegistrationBean<RequestProfilingFilter.SecurityPassedFilter> securityPassedFilter() {
+        FilterRegistrationBean<RequestProfilingFilter.SecurityPassedFilter> registration = new FilterRegistrationBean<>(
+                new RequestProfilingFilter.SecurityPassedFilter());
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+        return registration;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new PhaseProfilingInterceptor());
+    }
+}
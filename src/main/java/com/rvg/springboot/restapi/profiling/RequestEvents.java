@@ -0,0 +1,63 @@
+package com.rvg.springboot.restapi.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events for the phases of an HTTP request.
+ *
+ * <p>Each phase is its own event type so it can be enabled, thresholded and charted
+ * separately in JDK Mission Control, e.g.
+ * {@code jcmd <pid> JFR.start settings=profile} and then filter on the "Survey API"
+ * category. Committing an event is a no-op while no recording has it enabled.</p>
+ */
+final class RequestEvents {
+
+    private RequestEvents() {
+    }
+
+    @Category({ "Survey API", "HTTP" })
+    @StackTrace(false)
+    abstract static class RequestPhaseEvent extends Event {
+
+        @Label("Method")
+        String method;
+
+        @Label("Path")
+        String path;
+    }
+
+    @Name("com.rvg.survey.Request")
+    @Label("Request")
+    @Description("A whole HTTP request, from the first filter to the response being written")
+    static final class RequestEvent extends RequestPhaseEvent {
+
+        @Label("Status")
+        int status;
+    }
+
+    @Name("com.rvg.survey.SecurityPhase")
+    @Label("Security Phase")
+    @Description("Spring Security filter chain, including authentication and password checks")
+    static final class SecurityPhaseEvent extends RequestPhaseEvent {
+    }
+
+    @Name("com.rvg.survey.HandlerPhase")
+    @Label("Handler Phase")
+    @Description("Controller method, including service and store access")
+    static final class HandlerPhaseEvent extends RequestPhaseEvent {
+
+        @Label("Handler")
+        String handler;
+    }
+
+    @Name("com.rvg.survey.SerializationPhase")
+    @Label("Serialization Phase")
+    @Description("Writing the response body with the HTTP message converters")
+    static final class SerializationPhaseEvent extends RequestPhaseEvent {
+    }
+}
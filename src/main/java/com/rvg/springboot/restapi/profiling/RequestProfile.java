@@ -0,0 +1,143 @@
+package com.rvg.springboot.restapi.profiling;
+
+import java.time.Instant;
+
+import com.rvg.springboot.restapi.profiling.RequestEvents.HandlerPhaseEvent;
+import com.rvg.springboot.restapi.profiling.RequestEvents.RequestEvent;
+import com.rvg.springboot.restapi.profiling.RequestEvents.RequestPhaseEvent;
+import com.rvg.springboot.restapi.profiling.RequestEvents.SecurityPhaseEvent;
+import com.rvg.springboot.restapi.profiling.RequestEvents.SerializationPhaseEvent;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Phase timings of one request, stored as a request attribute while the request runs.
+ *
+ * <p>Every mark records {@link System#nanoTime()} and ends or begins the matching JFR
+ * event. Store accesses made by the handler are summed up separately. A request is
+ * handled by one thread at a time, so no synchronization is needed.</p>
+ */
+final class RequestProfile {
+
+    static final String ATTRIBUTE = RequestProfile.class.getName();
+
+    private final String method;
+    private final String path;
+    private final String thread = Thread.currentThread().getName();
+    private final long start = System.nanoTime();
+    private long end;
+    private int status;
+
+    private long securityEnd;
+    private long handlerStart;
+    private long serializationStart;
+    private long handlerEnd;
+    private String handler;
+    private long storeNanos;
+
+    private final RequestEvent requestEvent = new RequestEvent();
+    private final SecurityPhaseEvent securityEvent = new SecurityPhaseEvent();
+    private HandlerPhaseEvent handlerEvent;
+    private SerializationPhaseEvent serializationEvent;
+
+    RequestProfile(HttpServletRequest request) {
+        this.method = request.getMethod();
+        this.path = request.getRequestURI();
+        requestEvent.begin();
+        securityEvent.begin();
+    }
+
+    static RequestProfile of(HttpServletRequest request) {
+        return (RequestProfile) request.getAttribute(ATTRIBUTE);
+    }
+
+    // The request passed the security filter chain
+    void securityPassed() {
+        securityEnd = System.nanoTime();
+        commit(securityEvent);
+    }
+
+    void handlerStarted(String handlerName) {
+        // Keep the first handler; error dispatches run a second one for the same request
+        if (handlerEvent != null) {
+            return;
+        }
+        handlerStart = System.nanoTime();
+        handler = handlerName;
+        handlerEvent = new HandlerPhaseEvent();
+        handlerEvent.handler = handlerName;
+        handlerEvent.begin();
+    }
+
+    // The handler returned a body that is about to be written
+    void serializationStarted() {
+        if (handlerEvent == null || serializationEvent != null) {
+            return;
+        }
+        serializationStart = System.nanoTime();
+        commit(handlerEvent);
+        serializationEvent = new SerializationPhaseEvent();
+        serializationEvent.begin();
+    }
+
+    // Part of the handler phase, reported by StoreAccessTimer
+    void storeAccessed(long nanos) {
+        storeNanos += nanos;
+    }
+
+    void handlerCompleted() {
+        if (handlerEvent == null || handlerEnd != 0) {
+            return;
+        }
+        handlerEnd = System.nanoTime();
+        if (serializationEvent != null) {
+            commit(serializationEvent);
+        } else {
+            commit(handlerEvent);
+        }
+    }
+
+    /**
+     * Ends the request and its JFR events.
+     *
+     * @return the duration of the request in nanoseconds
+     */
+    long complete(int status) {
+        end = System.nanoTime();
+        this.status = status;
+        if (securityEnd == 0) {
+            // Rejected or answered by the security chain itself
+            securityEnd = end;
+            commit(securityEvent);
+        }
+        requestEvent.status = status;
+        commit(requestEvent);
+        return end - start;
+    }
+
+    /**
+     * Returns the breakdown of a completed request. Only built for requests the sampler keeps.
+     */
+    SlowRequest breakdown() {
+        long handlerStop = serializationStart != 0 ? serializationStart : handlerEnd;
+        return new SlowRequest(Instant.now(), method, path, status, handler, millis(end - start),
+                millis(securityEnd - start),
+                handlerStart == 0 ? 0 : millis(handlerStop - handlerStart),
+                millis(storeNanos),
+                serializationStart == 0 ? 0 : millis(handlerEnd - serializationStart),
+                thread);
+    }
+
+    private void commit(RequestPhaseEvent event) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.method = method;
+            event.path = path;
+            event.commit();
+        }
+    }
+
+    private static double millis(long nanos) {
+        return Math.max(0, nanos) / 1_000_000.0;
+    }
+}
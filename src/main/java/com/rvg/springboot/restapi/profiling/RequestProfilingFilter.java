@@ -0,0 +1,100 @@
+package com.rvg.springboot.restapi.profiling;
+
+import java.io.IOException;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Starts the profile of a request before Spring Security runs and completes it once the
+ * response is written. Requests slower than the threshold are handed to the
+ * {@link SlowRequestSampler}.
+ *
+ * <p>For asynchronous requests, such as streamed exports, the response is only written
+ * after the first dispatch returns, so their profile is completed by an
+ * {@link AsyncListener} when the async request completes.</p>
+ */
+class RequestProfilingFilter extends OncePerRequestFilter {
+
+    private final SlowRequestSampler sampler;
+
+    RequestProfilingFilter(SlowRequestSampler sampler) {
+        this.sampler = sampler;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestProfile profile = new RequestProfile(request);
+        request.setAttribute(RequestProfile.ATTRIBUTE, profile);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new CompletingListener(profile, response));
+            } else {
+                complete(profile, response);
+            }
+        }
+    }
+
+    private void complete(RequestProfile profile, HttpServletResponse response) {
+        if (sampler.isSlow(profile.complete(response.getStatus()))) {
+            sampler.record(profile.breakdown());
+        }
+    }
+
+    // Completes the profile of an asynchronous request once its response has been written
+    private final class CompletingListener implements AsyncListener {
+
+        private final RequestProfile profile;
+        private final HttpServletResponse response;
+
+        private CompletingListener(RequestProfile profile, HttpServletResponse response) {
+            this.profile = profile;
+            this.response = response;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            complete(profile, response);
+        }
+
+        // onComplete also follows timeouts and errors
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // The request went async again; keep listening on the new context
+            event.getAsyncContext().addListener(this);
+        }
+    }
+
+    /**
+     * Runs right after the Spring Security filter chain and marks the end of the security phase.
+     */
+    static class SecurityPassedFilter extends OncePerRequestFilter {
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                FilterChain filterChain) throws ServletException, IOException {
+            RequestProfile profile = RequestProfile.of(request);
+            if (profile != null) {
+                profile.securityPassed();
+            }
+            filterChain.doFilter(request, response);
+        }
+    }
+}
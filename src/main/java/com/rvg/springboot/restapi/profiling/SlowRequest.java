@@ -0,0 +1,25 @@
+package com.rvg.springboot.restapi.profiling;
+
+import java.time.Instant;
+
+/**
+ * Phase breakdown of a request that took longer than the slow-request threshold.
+ * Times are in milliseconds; phases that did not run are 0.
+ *
+ * @param completedAt         when the request completed
+ * @param method              the HTTP method
+ * @param path                the request path
+ * @param status              the response status
+ * @param handler             the controller method, or null if no handler ran
+ * @param totalMillis         the whole request
+ * @param securityMillis      the Spring Security filter chain
+ * @param handlerMillis       the controller method
+ * @param storeMillis         survey store reads and commits made by the controller method,
+ *                            part of handlerMillis
+ * @param serializationMillis writing the response body
+ * @param thread              the thread that started handling the request
+ */
+public record SlowRequest(Instant completedAt, String method, String path, int status, String handler,
+        double totalMillis, double securityMillis, double handlerMillis, double storeMillis,
+        double serializationMillis, String thread) {
+}
@@ -0,0 +1,38 @@
+/**
+ * This class is a REST controller for inspecting slow requests.
+ *
+ * Endpoints:
+ * - GET /profiling/slow-requests: Retrieve the most recent requests that exceeded
+ *   survey.profiling.slow-threshold, most recent first, with their per-phase breakdown.
+ *
+ * Only available with survey.profiling.enabled=true.
+ *
+ * @author rvega
+ */
+package com.rvg.springboot.restapi.profiling;
+
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/profiling")
+@ConditionalOnProperty(name = "survey.profiling.enabled", havingValue = "true")
+public class SlowRequestResource {
+
+    private final SlowRequestSampler sampler;
+
+    public SlowRequestResource(SlowRequestSampler sampler) {
+        this.sampler = sampler;
+    }
+
+    // Mapping HTTP GET requests to the specified URL pattern
+    // The method retrieves the recent slow requests
+    @RequestMapping(value = "/slow-requests", method = RequestMethod.GET)
+    public List<SlowRequest> retrieveSlowRequests() {
+        return sampler.recent();
+    }
+}
@@ -0,0 +1,51 @@
+package com.rvg.springboot.restapi.profiling;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Keeps the most recent slow requests in a fixed-size ring buffer.
+ *
+ * <p>Recording is a single atomic increment and an array store, so many request threads
+ * can record concurrently; when the buffer is full the oldest sample is overwritten.</p>
+ */
+public class SlowRequestSampler {
+
+    private final long thresholdNanos;
+    private final AtomicReferenceArray<SlowRequest> samples;
+    private final AtomicLong recorded = new AtomicLong();
+
+    public SlowRequestSampler(Duration threshold, int capacity) {
+        this.thresholdNanos = threshold.toNanos();
+        this.samples = new AtomicReferenceArray<>(Math.max(1, capacity));
+    }
+
+    boolean isSlow(long elapsedNanos) {
+        return elapsedNanos >= thresholdNanos;
+    }
+
+    void record(SlowRequest sample) {
+        long sequence = recorded.getAndIncrement();
+        samples.set((int) (sequence % samples.length()), sample);
+    }
+
+    /**
+     * Returns the retained samples, most recent first.
+     */
+    public List<SlowRequest> recent() {
+        long last = recorded.get();
+        int count = (int) Math.min(last, samples.length());
+        List<SlowRequest> recent = new ArrayList<>(count);
+        for (long sequence = last - 1; sequence >= last - count; sequence--) {
+            SlowRequest sample = samples.get((int) (sequence % samples.length()));
+            // Null while a concurrent record has claimed the slot but not stored yet
+            if (sample != null) {
+                recent.add(sample);
+            }
+        }
+        return recent;
+    }
+}
@@ -0,0 +1,31 @@
+package com.rvg.springboot.restapi.profiling;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Adds time spent in the survey store to the profile of the request being handled on the
+ * current thread.
+ *
+ * <p>Store code calls {@link #add(long)} after every access. Outside a profiled request,
+ * e.g. on a write-pipeline thread or with profiling disabled, the call does nothing.</p>
+ */
+public final class StoreAccessTimer {
+
+    private StoreAccessTimer() {
+    }
+
+    /**
+     * @param nanos the duration of one store access in nanoseconds
+     */
+    public static void add(long nanos) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            RequestProfile profile = RequestProfile.of(servletAttributes.getRequest());
+            if (profile != null) {
+                profile.storeAccessed(nanos);
+            }
+        }
+    }
+}
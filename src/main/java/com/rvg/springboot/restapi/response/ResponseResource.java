@@ -0,0 +1,67 @@
+/**
+ * This class is a REST controller that records survey responses and exports them in bulk.
+ *
+ * Endpoints:
+ * - POST /surveys/{surveyId}/responses: Record a respondent's answers, given as option
+ *   indices in the original option order.
+ * - GET /surveys/{surveyId}/responses/export?format=csv|ndjson: Stream all responses of the
+ *   survey as CSV (default) or NDJSON.
+ *
+ * Exports are streamed directly from the memory-mapped response segments, so they use
+ * constant memory no matter how many responses a survey has.
+ *
+ * @author rvega
+ */
+package com.rvg.springboot.restapi.response;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/surveys/{surveyId}/responses")
+public class ResponseResource {
+
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final ResponseService responseService;
+    private final SurveyResponseStore store;
+
+    public ResponseResource(ResponseService responseService, SurveyResponseStore store) {
+        this.responseService = responseService;
+        this.store = store;
+    }
+
+    // Mapping HTTP POST requests to the specified URL pattern
+    // The method records a respondent's answers
+    @RequestMapping(method = RequestMethod.POST)
+    public ResponseEntity<Void> submitResponse(@PathVariable String surveyId, @RequestBody Submission submission) {
+        responseService.submit(surveyId, submission);
+        return ResponseEntity.noContent().build();
+    }
+
+    // Mapping HTTP GET requests to the specified URL pattern
+    // The method streams all responses of the survey as CSV or NDJSON
+    @RequestMapping(value = "/export", method = RequestMethod.GET)
+    public ResponseEntity<StreamingResponseBody> exportResponses(@PathVariable String surveyId,
+            @RequestParam(defaultValue = "csv") String format) {
+        String id = responseService.retrieveSurvey(surveyId).getId();
+
+        return switch (format) {
+            case "csv" -> ResponseEntity.ok().contentType(CSV)
+                    .body(output -> store.exportCsv(id, output));
+            case "ndjson" -> ResponseEntity.ok().contentType(NDJSON)
+                    .body(output -> store.exportNdjson(id, output));
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported format " + format);
+        };
+    }
+}
@@ -0,0 +1,205 @@
+package com.rvg.springboot.restapi.response;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * One memory-mapped, append-only file of survey responses in a columnar layout. Without a
+ * file the same layout lives in a heap buffer.
+ *
+ * <p>A segment holds up to {@code capacity} rows for a fixed list of question IDs (its
+ * schema). Each column is a contiguous region of the file:</p>
+ * <pre>
+ * header     magic, capacity, row count, header size, question count, question IDs
+ * timestamps long[capacity]          submission time in epoch milliseconds
+ * respondent byte[capacity * 64]     length byte + up to 63 bytes of UTF-8
+ * answers    byte[capacity] per question, the original option index or -1 if unanswered
+ * </pre>
+ *
+ * <p>Rows are appended by a single writer (callers synchronize); the row count is
+ * published last through a volatile field, so concurrent readers only see complete rows.
+ * Reads use absolute positions and never change the buffer's state.</p>
+ */
+class ResponseSegment {
+
+    static final int MAX_RESPONDENT_BYTES = 63;
+    static final byte UNANSWERED = -1;
+
+    private static final int MAGIC = 0x53525331;
+    private static final int RESPONDENT_WIDTH = MAX_RESPONDENT_BYTES + 1;
+    private static final int ROW_COUNT_OFFSET = 8;
+
+    private final Path file;
+    private final ByteBuffer buffer;
+    private final int capacity;
+    private final List<String> questionIds;
+    private final Set<String> columns;
+    private final long timestampsOffset;
+    private final long respondentsOffset;
+    private final long answersOffset;
+
+    private volatile int rowCount;
+
+    private ResponseSegment(Path file, ByteBuffer buffer, int capacity, int headerSize,
+            List<String> questionIds, int rowCount) {
+        this.file = file;
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.questionIds = List.copyOf(questionIds);
+        this.columns = new HashSet<>(questionIds);
+        this.timestampsOffset = headerSize;
+        this.respondentsOffset = timestampsOffset + (long) Long.BYTES * capacity;
+        this.answersOffset = respondentsOffset + (long) RESPONDENT_WIDTH * capacity;
+        this.rowCount = rowCount;
+    }
+
+    /**
+     * Creates a new, empty segment file, or a segment in memory if the file is null.
+     */
+    static ResponseSegment create(Path file, List<String> questionIds, int capacity) throws IOException {
+        List<byte[]> encodedIds = new ArrayList<>();
+        int headerSize = 5 * Integer.BYTES;
+        for (String questionId : questionIds) {
+            byte[] encoded = questionId.getBytes(StandardCharsets.UTF_8);
+            encodedIds.add(encoded);
+            headerSize += Short.BYTES + encoded.length;
+        }
+        // Keep the timestamp column 8-byte aligned
+        headerSize = (headerSize + 7) & ~7;
+
+        long size = headerSize + (long) capacity * (Long.BYTES + RESPONDENT_WIDTH + questionIds.size());
+        ByteBuffer buffer = file == null ? ByteBuffer.allocate(Math.toIntExact(size)) : map(file, size, true);
+
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, capacity);
+        buffer.putInt(ROW_COUNT_OFFSET, 0);
+        buffer.putInt(12, headerSize);
+        buffer.putInt(16, questionIds.size());
+        int position = 20;
+        for (byte[] encoded : encodedIds) {
+            buffer.putShort(position, (short) encoded.length);
+            buffer.put(position + Short.BYTES, encoded);
+            position += Short.BYTES + encoded.length;
+        }
+
+        return new ResponseSegment(file, buffer, capacity, headerSize, questionIds, 0);
+    }
+
+    /**
+     * Opens an existing segment file, e.g. after a restart.
+     */
+    static ResponseSegment open(Path file) throws IOException {
+        MappedByteBuffer buffer = map(file, 0, false);
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a response segment: " + file);
+        }
+
+        int capacity = buffer.getInt(4);
+        int rowCount = buffer.getInt(ROW_COUNT_OFFSET);
+        int headerSize = buffer.getInt(12);
+        int questionCount = buffer.getInt(16);
+
+        List<String> questionIds = new ArrayList<>(questionCount);
+        int position = 20;
+        for (int i = 0; i < questionCount; i++) {
+            byte[] encoded = new byte[buffer.getShort(position)];
+            buffer.get(position + Short.BYTES, encoded);
+            questionIds.add(new String(encoded, StandardCharsets.UTF_8));
+            position += Short.BYTES + encoded.length;
+        }
+
+        return new ResponseSegment(file, buffer, capacity, headerSize, questionIds, rowCount);
+    }
+
+    private static MappedByteBuffer map(Path file, long size, boolean create) throws IOException {
+        try (FileChannel channel = create
+                ? FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE)
+                : FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, create ? size : channel.size());
+        }
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    List<String> getQuestionIds() {
+        return questionIds;
+    }
+
+    /**
+     * Returns whether the segment has a column for each of the question IDs, so rows of
+     * that schema can be appended, leaving the other columns unanswered.
+     */
+    boolean hasColumns(List<String> questionIds) {
+        return this.questionIds.equals(questionIds) || columns.containsAll(questionIds);
+    }
+
+    int getRowCount() {
+        return rowCount;
+    }
+
+    boolean isFull() {
+        return rowCount >= capacity;
+    }
+
+    /**
+     * Appends a row. Callers must ensure a single writer and that the segment is not full.
+     *
+     * @param timestamp  the submission time in epoch milliseconds
+     * @param respondent the respondent ID, UTF-8 encoded, at most {@link #MAX_RESPONDENT_BYTES}
+     * @param answers    the option index per question of the schema, {@link #UNANSWERED} if none
+     */
+    void append(long timestamp, byte[] respondent, byte[] answers) {
+        int row = rowCount;
+
+        buffer.putLong((int) (timestampsOffset + (long) row * Long.BYTES), timestamp);
+        int respondentPosition = (int) (respondentsOffset + (long) row * RESPONDENT_WIDTH);
+        buffer.put(respondentPosition, (byte) respondent.length);
+        buffer.put(respondentPosition + 1, respondent);
+        for (int column = 0; column < answers.length; column++) {
+            buffer.put((int) (answersOffset + (long) column * capacity + row), answers[column]);
+        }
+
+        // Publish the row only after all of its columns are written
+        buffer.putInt(ROW_COUNT_OFFSET, row + 1);
+        rowCount = row + 1;
+    }
+
+    long timestamp(int row) {
+        return buffer.getLong((int) (timestampsOffset + (long) row * Long.BYTES));
+    }
+
+    /**
+     * Copies the UTF-8 bytes of a row's respondent ID into {@code target}.
+     *
+     * @return the number of bytes copied
+     */
+    int respondent(int row, byte[] target) {
+        int position = (int) (respondentsOffset + (long) row * RESPONDENT_WIDTH);
+        int length = buffer.get(position);
+        buffer.get(position + 1, target, 0, length);
+        return length;
+    }
+
+    byte answer(int row, int column) {
+        return buffer.get((int) (answersOffset + (long) column * capacity + row));
+    }
+
+    // Write dirty pages to disk
+    void force() {
+        if (buffer instanceof MappedByteBuffer mapped) {
+            mapped.force();
+        }
+    }
+}
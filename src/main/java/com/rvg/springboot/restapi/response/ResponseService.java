@@ -0,0 +1,114 @@
+package com.rvg.springboot.restapi.response;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.rvg.springboot.restapi.schedule.SurveyScheduler;
+import com.rvg.springboot.restapi.survey.Question;
+import com.rvg.springboot.restapi.survey.Survey;
+import com.rvg.springboot.restapi.survey.SurveyService;
+
+/**
+ * Validates submissions against the current state of a survey, records them in the
+ * {@link SurveyResponseStore} and notifies the {@link SubmissionListener}s.
+ *
+ * @author rvega
+ */
+@Service
+public class ResponseService {
+
+    private static final Logger log = LoggerFactory.getLogger(ResponseService.class);
+
+    // Option indices are stored in one byte per answer
+    private static final int MAX_OPTION_INDEX = Byte.MAX_VALUE;
+
+    private final SurveyService surveyService;
+    private final SurveyResponseStore store;
+    private final ObjectProvider<SubmissionListener> listeners;
+    private final SurveyScheduler scheduler;
+
+    public ResponseService(SurveyService surveyService, SurveyResponseStore store,
+            ObjectProvider<SubmissionListener> listeners, SurveyScheduler scheduler) {
+        this.surveyService = surveyService;
+        this.store = store;
+        this.listeners = listeners;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Records a submission.
+     *
+     * @throws ResponseStatusException 404 if the survey does not exist, 409 if it is not open,
+     *                                 400 if the submission does not match the survey
+     */
+    public void submit(String surveyId, Submission submission) {
+        Survey survey = retrieveSurvey(surveyId);
+        scheduler.requireOpen(survey.getId());
+
+        String respondentId = submission.respondentId();
+        if (respondentId == null || respondentId.isEmpty()
+                || respondentId.getBytes(StandardCharsets.UTF_8).length > ResponseSegment.MAX_RESPONDENT_BYTES) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "respondentId must have 1 to " + ResponseSegment.MAX_RESPONDENT_BYTES + " bytes");
+        }
+
+        Map<String, Integer> answers = submission.answers() == null ? Map.of() : submission.answers();
+        for (Map.Entry<String, Integer> answer : answers.entrySet()) {
+            Question question = survey.findQuestion(answer.getKey());
+            if (question == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown question " + answer.getKey());
+            }
+            Integer index = answer.getValue();
+            int options = question.getOptions() == null ? 0 : question.getOptions().size();
+            if (index == null || index < 0 || index >= options || index > MAX_OPTION_INDEX) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Invalid option index for question " + answer.getKey());
+            }
+        }
+
+        Map<String, Long> answerTimes = submission.answerTimes() == null ? Map.of() : submission.answerTimes();
+        for (Map.Entry<String, Long> answerTime : answerTimes.entrySet()) {
+            if (!answers.containsKey(answerTime.getKey())) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Answer time given for unanswered question " + answerTime.getKey());
+            }
+            if (answerTime.getValue() == null || answerTime.getValue() < 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Invalid answer time for question " + answerTime.getKey());
+            }
+        }
+
+        long timestamp = System.currentTimeMillis();
+        store.append(survey, respondentId, answers, timestamp);
+
+        Submission accepted = new Submission(respondentId, answers, answerTimes);
+        listeners.orderedStream().forEach(listener -> {
+            try {
+                listener.onSubmission(survey, accepted, timestamp);
+            } catch (RuntimeException e) {
+                log.warn("Submission listener {} failed for survey {}", listener.getClass().getSimpleName(),
+                        survey.getId(), e);
+            }
+        });
+    }
+
+    /**
+     * Returns the survey, so that exports of unknown surveys fail before streaming starts.
+     *
+     * @throws ResponseStatusException 404 if the survey does not exist
+     */
+    public Survey retrieveSurvey(String surveyId) {
+        Survey survey = surveyService.retrieveSurveyById(surveyId);
+        if (survey == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Survey not found");
+        }
+        return survey;
+    }
+}
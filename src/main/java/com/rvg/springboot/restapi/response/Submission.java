@@ -0,0 +1,28 @@
+package com.rvg.springboot.restapi.response;
+
+import java.util.Map;
+
+/**
+ * A respondent's answers to a survey.
+ *
+ * <p>Example request body:</p>
+ * <pre>
+ * {@code
+ * {
+ *   "respondentId": "respondent-42",
+ *   "answers": { "Question1": 2, "Question2": 0 },
+ *   "answerTimes": { "Question1": 5300, "Question2": 12150 }
+ * }
+ * }
+ * </pre>
+ *
+ * @param respondentId the ID of the respondent
+ * @param answers      the chosen option index (in the original option order) per question ID
+ * @param answerTimes  optional: the milliseconds the respondent took to answer, per question ID
+ */
+public record Submission(String respondentId, Map<String, Integer> answers, Map<String, Long> answerTimes) {
+
+    public Submission(String respondentId, Map<String, Integer> answers) {
+        this(respondentId, answers, null);
+    }
+}
@@ -0,0 +1,28 @@
+package com.rvg.springboot.restapi.response;
+
+import com.rvg.springboot.restapi.survey.Survey;
+
+/**
+ * Notified of every accepted submission, after it was stored.
+ *
+ * <p>Listeners run on the request thread of the submission, so they must be fast and
+ * must not block; exceptions are logged and do not fail the submission.</p>
+ */
+public interface SubmissionListener {
+
+    /**
+     * @param survey     the survey version the submission was validated against
+     * @param submission the validated submission; answers are original option indices
+     * @param timestamp  the submission time in epoch milliseconds
+     */
+    void onSubmission(Survey survey, Submission submission, long timestamp);
+
+    /**
+     * Called when a survey is removed from the catalog, so the listener can drop what it
+     * keeps about the survey.
+     *
+     * @param surveyId the ID of the removed survey
+     */
+    default void onSurveyRemoved(String surveyId) {
+    }
+}
@@ -0,0 +1,278 @@
+/**
+ * Append-only, columnar store of survey responses backed by memory-mapped segment files.
+ *
+ * <p>Responses of a survey live in their own directory under {@code survey.responses.directory}
+ * as a sequence of {@link ResponseSegment} files holding up to
+ * {@code survey.responses.segment-capacity} rows each. A new segment is started when the
+ * current one is full or lacks a column for one of the survey's questions; a question
+ * that was removed or moved keeps using the current segment. New segments are sized to
+ * twice the rows their predecessor held, starting at {@value #INITIAL_SEGMENT_CAPACITY},
+ * so surveys with few responses or frequent question changes do not preallocate the
+ * full capacity.</p>
+ *
+ * <p>Exports read the segments row by row and write straight to the output, so memory use
+ * stays constant regardless of the number of responses. Writes go to the page cache;
+ * segments are flushed to disk on shutdown.</p>
+ *
+ * <p>When {@code survey.responses.directory} is not set, segments are kept on the heap and
+ * responses only live as long as the application; a warning is logged on startup.</p>
+ *
+ * @author rvega
+ */
+package com.rvg.springboot.restapi.response;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rvg.springboot.restapi.survey.Question;
+import com.rvg.springboot.restapi.survey.Survey;
+
+import jakarta.annotation.PreDestroy;
+
+@Component
+public class SurveyResponseStore {
+
+    static final int INITIAL_SEGMENT_CAPACITY = 1024;
+
+    private static final Logger log = LoggerFactory.getLogger(SurveyResponseStore.class);
+
+    private final Path directory;
+    private final int segmentCapacity;
+    private final ObjectMapper objectMapper;
+
+    private final ConcurrentMap<String, SurveyResponses> responsesBySurvey = new ConcurrentHashMap<>();
+
+    public SurveyResponseStore(@Value("${survey.responses.directory:}") String directory,
+            @Value("${survey.responses.segment-capacity:65536}") int segmentCapacity, ObjectMapper objectMapper) {
+        this.directory = directory == null || directory.isBlank() ? null
+                : Paths.get(directory).toAbsolutePath().normalize();
+        this.segmentCapacity = segmentCapacity;
+        this.objectMapper = objectMapper;
+        if (this.directory == null) {
+            log.warn("survey.responses.directory is not set: responses are kept on the heap and lost on shutdown");
+        }
+    }
+
+    /**
+     * Appends a response. The answers must already be validated against the survey.
+     *
+     * @param survey       the survey as it was when the response was submitted
+     * @param respondentId the respondent ID, at most 63 bytes of UTF-8
+     * @param answers      the original option index per question ID
+     * @param timestamp    the submission time in epoch milliseconds
+     */
+    public void append(Survey survey, String respondentId, Map<String, Integer> answers, long timestamp) {
+        List<String> questionIds = survey.getQuestions().stream().map(Question::getId).toList();
+        byte[] respondent = respondentId.getBytes(StandardCharsets.UTF_8);
+
+        responsesFor(survey.getId()).append(questionIds, timestamp, respondent, answers);
+    }
+
+    /**
+     * Returns the number of stored responses of a survey.
+     */
+    public long count(String surveyId) {
+        long count = 0;
+        for (ResponseSegment segment : responsesFor(surveyId).segments) {
+            count += segment.getRowCount();
+        }
+        return count;
+    }
+
+    /**
+     * Writes all responses of a survey as CSV: a header row with respondentId, timestamp
+     * and one column per question ID, then one row per response. Unanswered questions are
+     * left empty.
+     */
+    public void exportCsv(String surveyId, OutputStream output) throws IOException {
+        List<ResponseSegment> segments = List.copyOf(responsesFor(surveyId).segments);
+        List<String> columns = unionOfQuestionIds(segments);
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        writer.write("respondentId,timestamp");
+        for (String column : columns) {
+            writer.write(',');
+            writer.write(csv(column));
+        }
+        writer.write('\n');
+
+        byte[] respondent = new byte[ResponseSegment.MAX_RESPONDENT_BYTES];
+        for (ResponseSegment segment : segments) {
+            int[] columnMapping = columnMapping(columns, segment);
+            int rows = segment.getRowCount();
+            for (int row = 0; row < rows; row++) {
+                int length = segment.respondent(row, respondent);
+                writer.write(csv(new String(respondent, 0, length, StandardCharsets.UTF_8)));
+                writer.write(',');
+                writer.write(Long.toString(segment.timestamp(row)));
+                for (int column : columnMapping) {
+                    writer.write(',');
+                    byte answer = column < 0 ? ResponseSegment.UNANSWERED : segment.answer(row, column);
+                    if (answer != ResponseSegment.UNANSWERED) {
+                        writer.write(Integer.toString(answer));
+                    }
+                }
+                writer.write('\n');
+            }
+        }
+        writer.flush();
+    }
+
+    /**
+     * Writes all responses of a survey as NDJSON, one object per line:
+     * {@code {"respondentId":"...","timestamp":...,"answers":{"Question1":2}}}.
+     */
+    public void exportNdjson(String surveyId, OutputStream output) throws IOException {
+        List<ResponseSegment> segments = List.copyOf(responsesFor(surveyId).segments);
+
+        byte[] respondent = new byte[ResponseSegment.MAX_RESPONDENT_BYTES];
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+            generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            generator.setRootValueSeparator(null);
+            for (ResponseSegment segment : segments) {
+                List<String> questionIds = segment.getQuestionIds();
+                int rows = segment.getRowCount();
+                for (int row = 0; row < rows; row++) {
+                    int length = segment.respondent(row, respondent);
+                    generator.writeStartObject();
+                    generator.writeStringField("respondentId", new String(respondent, 0, length, StandardCharsets.UTF_8));
+                    generator.writeNumberField("timestamp", segment.timestamp(row));
+                    generator.writeObjectFieldStart("answers");
+                    for (int column = 0; column < questionIds.size(); column++) {
+                        byte answer = segment.answer(row, column);
+                        if (answer != ResponseSegment.UNANSWERED) {
+                            generator.writeNumberField(questionIds.get(column), answer);
+                        }
+                    }
+                    generator.writeEndObject();
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        responsesBySurvey.values().forEach(responses -> responses.segments.forEach(ResponseSegment::force));
+    }
+
+    private SurveyResponses responsesFor(String surveyId) {
+        return responsesBySurvey.computeIfAbsent(surveyId, id -> {
+            Path surveyDirectory = null;
+            if (directory != null) {
+                // URL encoding keeps "." and "..", so make sure the survey gets its own subdirectory
+                surveyDirectory = directory.resolve(URLEncoder.encode(id, StandardCharsets.UTF_8)).normalize();
+                if (!directory.equals(surveyDirectory.getParent())) {
+                    throw new IllegalArgumentException("Survey ID " + id + " cannot be used as a directory name");
+                }
+            }
+            try {
+                return new SurveyResponses(surveyDirectory);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot open responses of survey " + id, e);
+            }
+        });
+    }
+
+    // Question IDs of all segments, in order of first appearance
+    private static List<String> unionOfQuestionIds(List<ResponseSegment> segments) {
+        Map<String, Boolean> columns = new LinkedHashMap<>();
+        for (ResponseSegment segment : segments) {
+            segment.getQuestionIds().forEach(questionId -> columns.putIfAbsent(questionId, Boolean.TRUE));
+        }
+        return new ArrayList<>(columns.keySet());
+    }
+
+    // For each export column, the segment column holding it or -1
+    private static int[] columnMapping(List<String> columns, ResponseSegment segment) {
+        int[] mapping = new int[columns.size()];
+        for (int i = 0; i < mapping.length; i++) {
+            mapping[i] = segment.getQuestionIds().indexOf(columns.get(i));
+        }
+        return mapping;
+    }
+
+    private static String csv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    // The segments of one survey; appends are serialized on this object
+    private final class SurveyResponses {
+
+        private final Path surveyDirectory;
+        private final List<ResponseSegment> segments = new CopyOnWriteArrayList<>();
+
+        // Segments are kept in memory if the directory is null
+        private SurveyResponses(Path surveyDirectory) throws IOException {
+            this.surveyDirectory = surveyDirectory;
+            if (surveyDirectory == null) {
+                return;
+            }
+            Files.createDirectories(surveyDirectory);
+
+            List<Path> files = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(surveyDirectory, "segment-*.col")) {
+                stream.forEach(files::add);
+            }
+            files.sort(null);
+            for (Path file : files) {
+                segments.add(ResponseSegment.open(file));
+            }
+        }
+
+        private synchronized void append(List<String> questionIds, long timestamp, byte[] respondent,
+                Map<String, Integer> answers) {
+            ResponseSegment active = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+            if (active == null || active.isFull() || !active.hasColumns(questionIds)) {
+                Path file = surveyDirectory == null ? null
+                        : surveyDirectory.resolve(String.format("segment-%08d.col", segments.size() + 1));
+                // Grow with the survey's responses instead of preallocating the full capacity
+                int capacity = Math.min(segmentCapacity,
+                        Math.max(INITIAL_SEGMENT_CAPACITY, active == null ? 0 : 2 * active.getRowCount()));
+                try {
+                    active = ResponseSegment.create(file, questionIds, capacity);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Cannot create response segment " + file, e);
+                }
+                segments.add(active);
+            }
+
+            // The segment's columns may differ from the survey's questions in order and number
+            List<String> columns = active.getQuestionIds();
+            byte[] row = new byte[columns.size()];
+            for (int column = 0; column < row.length; column++) {
+                Integer answer = answers.get(columns.get(column));
+                row[column] = answer == null ? ResponseSegment.UNANSWERED : answer.byteValue();
+            }
+            active.append(timestamp, respondent, row);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.rvg.springboot.restapi.schedule;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel (Varghese and Lauck) that runs many timeouts from one clock.
+ *
+ * <p>Time advances in ticks of {@code tickMillis}. There are {@value #LEVELS} wheels of
+ * {@value #SLOTS} slots: a timeout less than 64 ticks away goes into a slot of the first
+ * wheel, one less than 64^2 ticks away into the second wheel, and so on. Whenever a wheel
+ * completes a revolution, the next slot of the wheel above is emptied and its timeouts
+ * are placed again, moving them one level closer. Scheduling and cancelling are O(1) and
+ * each tick touches one slot, no matter how many timeouts are pending. Timeouts further
+ * away than the top wheel reaches (64^4 ticks) are parked in its last slot and placed
+ * again when it comes around.</p>
+ *
+ * <p>The wheel has no thread of its own: the owner calls {@link #advance(long)} with the
+ * current time, and expired tasks run on the calling thread, outside the wheel's lock.
+ * A task runs at the first tick at or after its deadline.</p>
+ */
+final class HierarchicalTimingWheel {
+
+    static final int SLOTS = 64;
+    static final int LEVELS = 4;
+
+    private static final int SLOT_BITS = Integer.numberOfTrailingZeros(SLOTS);
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final long MAX_DELAY_TICKS = 1L << (SLOT_BITS * LEVELS);
+
+    /**
+     * A pending task; cancelling it removes it from its slot.
+     */
+    final class Timeout {
+
+        private final long deadlineTick;
+        private final Runnable task;
+
+        // Intrusive list of the slot holding this timeout, guarded by the wheel
+        private Timeout previous;
+        private Timeout next;
+        private Slot slot;
+
+        private Timeout(long deadlineTick, Runnable task) {
+            this.deadlineTick = deadlineTick;
+            this.task = task;
+        }
+
+        /**
+         * Cancels the timeout; has no effect if it already ran.
+         */
+        void cancel() {
+            synchronized (HierarchicalTimingWheel.this) {
+                if (slot != null) {
+                    slot.remove(this);
+                    pending--;
+                }
+            }
+        }
+    }
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final Slot[][] wheels = new Slot[LEVELS][SLOTS];
+
+    // The last tick that was processed, guarded by "this"
+    private long currentTick;
+    private int pending;
+
+    HierarchicalTimingWheel(long tickMillis, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must be positive: " + tickMillis);
+        }
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        for (Slot[] wheel : wheels) {
+            for (int i = 0; i < SLOTS; i++) {
+                wheel[i] = new Slot();
+            }
+        }
+    }
+
+    long tickMillis() {
+        return tickMillis;
+    }
+
+    /**
+     * Schedules a task; deadlines that already passed run at the next tick.
+     *
+     * @param deadlineMillis the time to run the task, in epoch milliseconds
+     */
+    synchronized Timeout schedule(long deadlineMillis, Runnable task) {
+        // Round up, so a task never runs before its deadline
+        long deadlineTick = Math.max(currentTick + 1, Math.ceilDiv(deadlineMillis - startMillis, tickMillis));
+        Timeout timeout = new Timeout(deadlineTick, task);
+        place(timeout);
+        pending++;
+        return timeout;
+    }
+
+    synchronized int pending() {
+        return pending;
+    }
+
+    /**
+     * Processes every tick up to the given time and runs the tasks that expired.
+     *
+     * @param nowMillis the current time in epoch milliseconds
+     * @return the number of tasks that ran
+     */
+    int advance(long nowMillis) {
+        List<Runnable> expired = new ArrayList<>();
+        synchronized (this) {
+            long targetTick = Math.floorDiv(nowMillis - startMillis, tickMillis);
+            while (currentTick < targetTick) {
+                currentTick++;
+                // A completed revolution of one wheel moves the next slot of the wheel above down
+                int index = (int) (currentTick & SLOT_MASK);
+                for (int level = 1; index == 0 && level < LEVELS; level++) {
+                    index = (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+                    cascade(wheels[level][index]);
+                }
+
+                Slot due = wheels[0][(int) (currentTick & SLOT_MASK)];
+                for (Timeout timeout = due.head; timeout != null; timeout = due.head) {
+                    due.remove(timeout);
+                    pending--;
+                    expired.add(timeout.task);
+                }
+            }
+        }
+
+        for (Runnable task : expired) {
+            task.run();
+        }
+        return expired.size();
+    }
+
+    // Removes every timeout from the slot and places it again relative to the current tick
+    private void cascade(Slot slot) {
+        for (Timeout timeout = slot.head; timeout != null; timeout = slot.head) {
+            slot.remove(timeout);
+            place(timeout);
+        }
+    }
+
+    private void place(Timeout timeout) {
+        long delay = timeout.deadlineTick - currentTick;
+        // Beyond the top wheel: park in the slot that comes around last, then place again
+        long tick = delay < MAX_DELAY_TICKS ? timeout.deadlineTick : currentTick + MAX_DELAY_TICKS - 1;
+        delay = tick - currentTick;
+
+        int level = 0;
+        while (level < LEVELS - 1 && delay >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        wheels[level][(int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK)].add(timeout);
+    }
+
+    // Doubly linked list of timeouts
+    private static final class Slot {
+
+        private Timeout head;
+
+        private void add(Timeout timeout) {
+            timeout.slot = this;
+            timeout.previous = null;
+            timeout.next = head;
+            if (head != null) {
+                head.previous = timeout;
+            }
+            head = timeout;
+        }
+
+        private void remove(Timeout timeout) {
+            if (timeout.previous != null) {
+                timeout.previous.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.previous = timeout.previous;
+            }
+            timeout.previous = null;
+            timeout.next = null;
+            timeout.slot = null;
+        }
+    }
+}
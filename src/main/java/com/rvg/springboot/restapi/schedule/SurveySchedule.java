@@ -0,0 +1,36 @@
+package com.rvg.springboot.restapi.schedule;
+
+import java.time.Instant;
+
+/**
+ * The window in which a survey accepts submissions and question edits.
+ *
+ * <p>Example request body:</p>
+ * <pre>
+ * {@code
+ * {
+ *   "opensAt": "2026-11-01T09:00:00Z",
+ *   "closesAt": "2026-11-08T17:00:00Z"
+ * }
+ * }
+ * </pre>
+ *
+ * @param surveyId the ID of the survey, taken from the URL
+ * @param opensAt  when the survey opens, or null if it is open from the start
+ * @param closesAt when the survey closes, or null if it never closes
+ */
+public record SurveySchedule(String surveyId, Instant opensAt, Instant closesAt) {
+
+    /**
+     * Returns the status of the survey at the given time.
+     */
+    public SurveyStatus statusAt(Instant instant) {
+        if (opensAt != null && instant.isBefore(opensAt)) {
+            return SurveyStatus.SCHEDULED;
+        }
+        if (closesAt != null && !instant.isBefore(closesAt)) {
+            return SurveyStatus.CLOSED;
+        }
+        return SurveyStatus.OPEN;
+    }
+}
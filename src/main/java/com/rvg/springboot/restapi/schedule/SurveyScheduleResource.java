@@ -0,0 +1,92 @@
+/**
+ * This class is a REST controller for the open/close schedules of surveys.
+ *
+ * Endpoints:
+ * - GET /surveys/{surveyId}/schedule: Retrieve the survey's schedule and current status.
+ * - PUT /surveys/{surveyId}/schedule: Set or replace the schedule, given as opensAt and/or
+ *   closesAt (ISO-8601 instants).
+ * - DELETE /surveys/{surveyId}/schedule: Remove the schedule; the survey is then always open.
+ *
+ * Outside its window a survey rejects submissions and question edits with 409 Conflict.
+ *
+ * @author rvega
+ */
+package com.rvg.springboot.restapi.schedule;
+
+import java.time.Instant;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.rvg.springboot.restapi.survey.SurveyService;
+
+@RestController
+@RequestMapping("/surveys/{surveyId}/schedule")
+public class SurveyScheduleResource {
+
+    /**
+     * A survey's schedule with its current status; the times are null without a schedule.
+     */
+    public record ScheduleStatus(String surveyId, Instant opensAt, Instant closesAt, SurveyStatus status) {
+    }
+
+    private final SurveyScheduler scheduler;
+    private final SurveyService surveyService;
+
+    public SurveyScheduleResource(SurveyScheduler scheduler, SurveyService surveyService) {
+        this.scheduler = scheduler;
+        this.surveyService = surveyService;
+    }
+
+    // Mapping HTTP GET requests to the specified URL pattern
+    // The method retrieves the schedule and status of the survey
+    @RequestMapping(method = RequestMethod.GET)
+    public ScheduleStatus retrieveSchedule(@PathVariable String surveyId) {
+        requireSurvey(surveyId);
+        SurveySchedule schedule = scheduler.scheduleOf(surveyId);
+        return schedule == null
+                ? new ScheduleStatus(surveyId, null, null, scheduler.statusOf(surveyId))
+                : new ScheduleStatus(surveyId, schedule.opensAt(), schedule.closesAt(), scheduler.statusOf(surveyId));
+    }
+
+    // Mapping HTTP PUT requests to the specified URL pattern
+    // The method sets or replaces the schedule of the survey
+    @RequestMapping(method = RequestMethod.PUT)
+    public ScheduleStatus updateSchedule(@PathVariable String surveyId, @RequestBody SurveySchedule schedule) {
+        requireSurvey(surveyId);
+        if (schedule.opensAt() == null && schedule.closesAt() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Give opensAt, closesAt or both");
+        }
+
+        SurveySchedule scheduled = new SurveySchedule(surveyId, schedule.opensAt(), schedule.closesAt());
+        try {
+            SurveyStatus status = scheduler.schedule(scheduled);
+            return new ScheduleStatus(surveyId, scheduled.opensAt(), scheduled.closesAt(), status);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    // Mapping HTTP DELETE requests to the specified URL pattern
+    // The method removes the schedule of the survey
+    @RequestMapping(method = RequestMethod.DELETE)
+    public ResponseEntity<Void> deleteSchedule(@PathVariable String surveyId) {
+        requireSurvey(surveyId);
+        if (!scheduler.unschedule(surveyId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Survey has no schedule");
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    private void requireSurvey(String surveyId) {
+        if (surveyService.retrieveSurveyById(surveyId) == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Survey not found");
+        }
+    }
+}
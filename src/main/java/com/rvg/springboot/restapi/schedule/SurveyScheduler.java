@@ -0,0 +1,240 @@
+package com.rvg.springboot.restapi.schedule;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Opens and closes surveys at scheduled times.
+ *
+ * <p>All schedules share one {@link HierarchicalTimingWheel} driven by a single thread,
+ * instead of one timer per survey. When a survey's opening or closing time is reached the
+ * wheel thread stores the new {@link SurveyStatus} in the survey's window, so request
+ * threads check a survey with a map lookup and a single volatile read; they never
+ * compare times themselves.</p>
+ *
+ * <p>When {@code survey.schedule.file} is set, schedules are written to it on every change
+ * and reloaded on startup, where each survey's status is derived from the current time and
+ * its remaining transitions are scheduled again. Without it schedules only live in memory.</p>
+ *
+ * @author rvega
+ */
+// Eager even with lazy initialization: schedules must resume on startup, not on the first request
+@Service
+@Lazy(false)
+public class SurveyScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(SurveyScheduler.class);
+
+    private final Path file;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    private final long startMillis;
+    private final HierarchicalTimingWheel wheel;
+
+    // Window per scheduled survey; surveys without an entry are open
+    private final ConcurrentMap<String, Window> windows = new ConcurrentHashMap<>();
+
+    private Thread wheelThread;
+
+    @Autowired
+    public SurveyScheduler(ObjectMapper objectMapper,
+            @Value("${survey.schedule.file:}") String file,
+            @Value("${survey.schedule.tick:1s}") Duration tick) {
+        this(objectMapper, file, tick, Clock.systemUTC());
+    }
+
+    SurveyScheduler(ObjectMapper objectMapper, String file, Duration tick, Clock clock) {
+        this.file = file == null || file.isBlank() ? null : Paths.get(file);
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        this.startMillis = clock.millis();
+        this.wheel = new HierarchicalTimingWheel(tick.toMillis(), startMillis);
+    }
+
+    // Restore the saved schedules and start turning the wheel
+    @PostConstruct
+    public void start() {
+        for (SurveySchedule schedule : load()) {
+            activate(schedule);
+        }
+
+        wheelThread = new Thread(this::run, "survey-schedule-wheel");
+        wheelThread.setDaemon(true);
+        wheelThread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (wheelThread != null) {
+            wheelThread.interrupt();
+        }
+    }
+
+    /**
+     * Returns the current status of a survey.
+     */
+    public SurveyStatus statusOf(String surveyId) {
+        Window window = windows.get(surveyId);
+        return window == null ? SurveyStatus.OPEN : window.status;
+    }
+
+    /**
+     * @throws ResponseStatusException 409 if the survey is not open
+     */
+    public void requireOpen(String surveyId) {
+        SurveyStatus status = statusOf(surveyId);
+        if (status != SurveyStatus.OPEN) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Survey is " + status.name().toLowerCase());
+        }
+    }
+
+    /**
+     * Returns the schedule of a survey, or null if it has none.
+     */
+    public SurveySchedule scheduleOf(String surveyId) {
+        Window window = windows.get(surveyId);
+        return window == null ? null : window.schedule;
+    }
+
+    /**
+     * Sets or replaces the schedule of a survey and saves all schedules.
+     *
+     * @throws IllegalArgumentException if the survey would close before it opens
+     */
+    public synchronized SurveyStatus schedule(SurveySchedule schedule) {
+        if (schedule.opensAt() != null && schedule.closesAt() != null
+                && !schedule.opensAt().isBefore(schedule.closesAt())) {
+            throw new IllegalArgumentException("closesAt must be after opensAt");
+        }
+
+        Window window = activate(schedule);
+        save();
+        return window.status;
+    }
+
+    /**
+     * Removes the schedule of a survey, which is then always open.
+     *
+     * @return whether the survey had a schedule
+     */
+    public synchronized boolean unschedule(String surveyId) {
+        Window window = windows.remove(surveyId);
+        if (window == null) {
+            return false;
+        }
+
+        window.cancel();
+        save();
+        return true;
+    }
+
+    // Publish the window with its current status and schedule its remaining transitions
+    private Window activate(SurveySchedule schedule) {
+        Instant now = clock.instant();
+        Window window = new Window(schedule, schedule.statusAt(now));
+        for (Instant transition : new Instant[] { schedule.opensAt(), schedule.closesAt() }) {
+            if (transition != null && transition.isAfter(now)) {
+                // Re-derive the status when it fires; the tick is never before the transition
+                window.timeouts.add(wheel.schedule(transition.toEpochMilli(),
+                        () -> window.status = schedule.statusAt(clock.instant())));
+            }
+        }
+
+        Window previous = windows.put(schedule.surveyId(), window);
+        if (previous != null) {
+            previous.cancel();
+        }
+        return window;
+    }
+
+    private void run() {
+        long tickMillis = wheel.tickMillis();
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                wheel.advance(clock.millis());
+                // Wake up at the next tick boundary
+                Thread.sleep(tickMillis - Math.floorMod(clock.millis() - startMillis, tickMillis));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.error("Survey schedule transition failed", e);
+            }
+        }
+    }
+
+    private List<SurveySchedule> load() {
+        if (file == null || !Files.exists(file)) {
+            return List.of();
+        }
+
+        try {
+            return objectMapper.readValue(file.toFile(), new TypeReference<List<SurveySchedule>>() {
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read survey schedules " + file, e);
+        }
+    }
+
+    // Rewrite the whole file and switch to it atomically; schedules change rarely
+    private void save() {
+        if (file == null) {
+            return;
+        }
+
+        List<SurveySchedule> schedules = new ArrayList<>();
+        windows.values().forEach(window -> schedules.add(window.schedule));
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            objectMapper.writeValue(temporary.toFile(), schedules);
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write survey schedules " + file, e);
+        }
+    }
+
+    // A survey's schedule and its status, which only the wheel thread changes after publication
+    private static final class Window {
+
+        private final SurveySchedule schedule;
+        private final List<HierarchicalTimingWheel.Timeout> timeouts = new ArrayList<>(2);
+        private volatile SurveyStatus status;
+
+        private Window(SurveySchedule schedule, SurveyStatus status) {
+            this.schedule = schedule;
+            this.status = status;
+        }
+
+        private void cancel() {
+            timeouts.forEach(HierarchicalTimingWheel.Timeout::cancel);
+        }
+    }
+}
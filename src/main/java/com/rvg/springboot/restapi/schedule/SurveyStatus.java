@@ -0,0 +1,16 @@
+package com.rvg.springboot.restapi.schedule;
+
+/**
+ * Where a survey is in its schedule. Surveys without a schedule are always open.
+ */
+public enum SurveyStatus {
+
+    /** Before the survey opens. */
+    SCHEDULED,
+
+    /** Accepting submissions and question edits. */
+    OPEN,
+
+    /** After the survey closed. */
+    CLOSED
+}
@@ -0,0 +1,64 @@
+/**
+ * Loads authentication principals from the JPA user table.
+ *
+ * <p>Accounts are looked up through {@link UserDetailsRepository#findAccountByName(String)},
+ * whose immutable results are kept in a bounded cache (see {@code UserDetailsCacheConfiguration}). Repeated
+ * requests from the same user therefore do not hit the database, and any write through the
+ * repository evicts the cache so account changes take effect on the next request.</p>
+ *
+ * <p>A fresh principal is built for every call: Spring Security erases the credentials of
+ * the principal after authentication, which would corrupt a cached instance.</p>
+ *
+ * <p>The stored role (for example {@code Admin}, or {@code ROLE_ADMIN} if it was stored with
+ * the prefix) is exposed as the authority {@code ROLE_ADMIN}. Users without a stored password
+ * are returned as disabled.</p>
+ *
+ * @author rvega
+ */
+package com.rvg.springboot.restapi.security;
+
+import java.util.Locale;
+
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+import com.rvg.springboot.restapi.user.UserAccount;
+import com.rvg.springboot.restapi.user.UserDetailsRepository;
+
+@Service
+public class JpaUserDetailsService implements UserDetailsService {
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private final UserDetailsRepository repository;
+
+    public JpaUserDetailsService(UserDetailsRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        return repository.findAccountByName(username)
+                .map(JpaUserDetailsService::toPrincipal)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+    }
+
+    // Map the stored account to a Spring Security principal
+    private static UserDetails toPrincipal(UserAccount account) {
+        String password = account.password();
+        String role = account.role() == null ? "USER" : account.role().toUpperCase(Locale.ROOT);
+        // roles(...) adds the prefix itself and rejects roles that already have it
+        if (role.startsWith(ROLE_PREFIX)) {
+            role = role.substring(ROLE_PREFIX.length());
+        }
+
+        return User.withUsername(account.name())
+                .password(password == null ? "" : password)
+                .disabled(password == null)
+                .roles(role)
+                .build();
+    }
+}
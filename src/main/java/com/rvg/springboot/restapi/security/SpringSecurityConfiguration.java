@@ -2,9 +2,13 @@
  * Configuration class for Spring Security.
  * 
  * This class sets up the security configuration for the application, including:
- * - Creating an in-memory user details manager with predefined users.
- * - Providing a password encoder bean.
- * - Configuring the security filter chain to require authentication for all requests,
+ * - Authenticating against the JPA user table through JpaUserDetailsService.
+ * - Providing a password encoder bean. Its BCrypt cost is set with
+ *   survey.security.bcrypt-strength (default 10); benchmarks lower it so password checks do
+ *   not hide the cost of the rest of the request.
+ * - Configuring the security filter chain to require authentication for all requests
+ *   (except cluster invalidations, which are checked against a shared token), restrict
+ *   changes to the user accounts exported at /userDetailses to administrators,
  *   use basic authentication, disable CSRF for POST or PUT requests, and disable frame
  *   options to allow access to the H2 console.
  * 
@@ -15,58 +19,38 @@
  */
 package com.rvg.springboot.restapi.security;
 
-import java.util.function.Function;
-
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
-import org.springframework.security.core.userdetails.User;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 import static org.springframework.security.config.Customizer.withDefaults;
 
 @Configuration
 public class SpringSecurityConfiguration {
 
-    // Bean to create an in-memory user details manager with two users
-    @Bean
-    public InMemoryUserDetailsManager createUserDetailsManager() {
-
-        UserDetails userDetails1 = createNewUser("admin", "admin");
-        UserDetails userDetails2 = createNewUser("rvg", "asdf");
-
-        return new InMemoryUserDetailsManager(userDetails1, userDetails2);
-    }
-
-    // Helper method to create a new user with encoded password
-    private UserDetails createNewUser(String username, String password) {
-        Function<String, String> passwordEncoder = input -> passwordEncoder().encode(input);
-
-        UserDetails userDetails = User.builder()
-                .passwordEncoder(passwordEncoder)
-                .username(username)
-                .password(password)
-                .roles("USER", "ADMIN")
-                .build();
-        return userDetails;
-    }
-
     // Bean to provide a password encoder
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${survey.security.bcrypt-strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 
     // Bean to configure the security filter chain
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
 
-        // Require authentication for any request
+        // Require authentication for any request; cluster peers use a shared token instead.
+        // Only administrators may create, change or delete user accounts.
         http.authorizeHttpRequests(
-                auth -> auth.anyRequest().authenticated());
+                auth -> auth.requestMatchers("/cluster/invalidations/**").permitAll()
+                        .requestMatchers(HttpMethod.POST, "/userDetailses/**").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.PUT, "/userDetailses/**").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.PATCH, "/userDetailses/**").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.DELETE, "/userDetailses/**").hasRole("ADMIN")
+                        .anyRequest().authenticated());
 
         // Use basic authentication
         http.httpBasic(withDefaults());
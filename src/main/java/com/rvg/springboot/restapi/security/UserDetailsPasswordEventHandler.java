@@ -0,0 +1,56 @@
+/**
+ * Encodes plain-text passwords of users created or updated through Spring Data REST.
+ *
+ * <p>Passwords that already look like BCrypt hashes are left untouched, so updating other
+ * fields of a user does not hash the stored hash a second time.</p>
+ *
+ * <p>The password is never serialized, so a client that reads a user and sends it back with
+ * {@code PUT} does not include it. An update without a password keeps the stored one
+ * instead of locking the account.</p>
+ *
+ * @author rvega
+ */
+package com.rvg.springboot.restapi.security;
+
+import java.util.regex.Pattern;
+
+import org.springframework.data.rest.core.annotation.HandleBeforeCreate;
+import org.springframework.data.rest.core.annotation.HandleBeforeSave;
+import org.springframework.data.rest.core.annotation.RepositoryEventHandler;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import com.rvg.springboot.restapi.user.UserDetails;
+import com.rvg.springboot.restapi.user.UserDetailsRepository;
+
+@Component
+@RepositoryEventHandler
+public class UserDetailsPasswordEventHandler {
+
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("\\A\\$2([ayb])?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+
+    private final PasswordEncoder passwordEncoder;
+
+    private final UserDetailsRepository repository;
+
+    public UserDetailsPasswordEventHandler(PasswordEncoder passwordEncoder, UserDetailsRepository repository) {
+        this.passwordEncoder = passwordEncoder;
+        this.repository = repository;
+    }
+
+    @HandleBeforeSave
+    public void keepOrEncodePassword(UserDetails userDetails) {
+        if (userDetails.getPassword() == null && userDetails.getId() != null) {
+            userDetails.setPassword(repository.findPasswordById(userDetails.getId()));
+        }
+        encodePassword(userDetails);
+    }
+
+    @HandleBeforeCreate
+    public void encodePassword(UserDetails userDetails) {
+        String password = userDetails.getPassword();
+        if (password != null && !BCRYPT_PATTERN.matcher(password).matches()) {
+            userDetails.setPassword(passwordEncoder.encode(password));
+        }
+    }
+}
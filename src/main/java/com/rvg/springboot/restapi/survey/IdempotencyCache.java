@@ -0,0 +1,87 @@
+/**
+ * Remembers the responses of requests sent with an {@code Idempotency-Key} header, so a
+ * retried request gets the original response instead of being executed again.
+ *
+ * <p>The first request with a key runs; its successful response is kept for
+ * {@code survey.idempotency.ttl} and replayed for every later request with the same key.
+ * Requests that arrive while the first one is still running wait for its result. Failed
+ * requests are not remembered, so the client can retry them with the same key. At most
+ * {@code survey.idempotency.maximum-size} responses are kept.</p>
+ *
+ * @author rvega
+ */
+package com.rvg.springboot.restapi.survey;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+@Component
+public class IdempotencyCache {
+
+    static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private final Cache<String, CompletableFuture<ResponseEntity<Object>>> responses;
+
+    public IdempotencyCache(@Value("${survey.idempotency.maximum-size:100000}") long maximumSize,
+            @Value("${survey.idempotency.ttl:24h}") Duration timeToLive) {
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .build();
+    }
+
+    /**
+     * Runs the request unless a request with the same key ran before.
+     *
+     * @param key     the idempotency key, scoped by the caller to the resource and client
+     * @param request produces the response of the first request with the key
+     * @return the response of the first request with the key
+     */
+    public ResponseEntity<Object> execute(String key, Supplier<ResponseEntity<Object>> request) {
+        CompletableFuture<ResponseEntity<Object>> pending = new CompletableFuture<>();
+        CompletableFuture<ResponseEntity<Object>> existing = responses.asMap().putIfAbsent(key, pending);
+        if (existing != null) {
+            return replay(existing);
+        }
+
+        try {
+            ResponseEntity<Object> response = request.get();
+            if (!response.getStatusCode().is2xxSuccessful()) {
+                responses.asMap().remove(key, pending);
+            }
+            pending.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            responses.asMap().remove(key, pending);
+            pending.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static ResponseEntity<Object> replay(CompletableFuture<ResponseEntity<Object>> original) {
+        ResponseEntity<Object> response;
+        try {
+            response = original.join();
+        } catch (CompletionException e) {
+            // The original request failed; report the same error to the requests that waited for it
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .header(REPLAYED_HEADER, "true")
+                .body(response.getBody());
+    }
+}
@@ -0,0 +1,48 @@
+package com.rvg.springboot.restapi.survey;
+
+import java.util.Iterator;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * JSON Merge Patch as defined by RFC 7396.
+ *
+ * <p>Members of the patch replace the members of the target with the same name, null
+ * members remove them, and nested objects are merged recursively. Any other patch value,
+ * including an array, replaces the target as a whole.</p>
+ */
+final class JsonMergePatch {
+
+    static final String MEDIA_TYPE = "application/merge-patch+json";
+
+    private JsonMergePatch() {
+    }
+
+    /**
+     * Applies a patch. Object targets are modified in place.
+     *
+     * @param target the document to patch, may be null
+     * @param patch  the merge patch
+     * @return the patched document
+     */
+    static JsonNode apply(JsonNode target, JsonNode patch) {
+        if (!patch.isObject()) {
+            return patch;
+        }
+
+        ObjectNode result = target instanceof ObjectNode object ? object : JsonNodeFactory.instance.objectNode();
+        Iterator<Map.Entry<String, JsonNode>> members = patch.fields();
+        while (members.hasNext()) {
+            Map.Entry<String, JsonNode> member = members.next();
+            if (member.getValue().isNull()) {
+                result.remove(member.getKey());
+            } else {
+                result.set(member.getKey(), apply(result.get(member.getKey()), member.getValue()));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,289 @@
+package com.rvg.springboot.restapi.survey;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * An immutable list that shares structure with the lists it was derived from.
+ *
+ * <p>Elements are kept in a height-balanced (AVL) tree ordered by position, where every
+ * node knows the size of its subtree. Changing, inserting or removing an element copies
+ * only the O(log n) nodes on the path to it; every other node is shared with the original
+ * list, which stays unchanged. Keeping many versions of a list therefore costs memory
+ * proportional to the changes, not to the number of versions times the list size.</p>
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ * {@code
+ * PersistentList<Question> v1 = PersistentList.copyOf(questions);
+ * PersistentList.Editor<Question> editor = v1.edit();
+ * editor.set(3, patchedQuestion);
+ * PersistentList<Question> v2 = editor.toPersistentList(); // v1 is unchanged
+ * }
+ * </pre>
+ *
+ * @param <E> the element type
+ */
+final class PersistentList<E> extends AbstractList<E> implements RandomAccess {
+
+    private static final PersistentList<?> EMPTY = new PersistentList<>(null);
+
+    private final Node<E> root;
+
+    private PersistentList(Node<E> root) {
+        this.root = root;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentList<E> empty() {
+        return (PersistentList<E>) EMPTY;
+    }
+
+    /**
+     * Returns a persistent list with the given elements; persistent lists are returned as is.
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentList<E> copyOf(Collection<? extends E> elements) {
+        if (elements instanceof PersistentList<?> list) {
+            return (PersistentList<E>) list;
+        }
+
+        Object[] array = elements.toArray();
+        return array.length == 0 ? empty() : new PersistentList<>(build(array, 0, array.length));
+    }
+
+    @Override
+    public E get(int index) {
+        checkIndex(index, size());
+        Node<E> node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                node = node.right;
+            } else {
+                return node.value;
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return size(root);
+    }
+
+    // In-order traversal: O(n) for the whole list instead of O(log n) per element
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<>() {
+            private final Deque<Node<E>> path = new ArrayDeque<>();
+            {
+                descendLeft(root);
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !path.isEmpty();
+            }
+
+            @Override
+            public E next() {
+                if (path.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                Node<E> node = path.pop();
+                descendLeft(node.right);
+                return node.value;
+            }
+
+            private void descendLeft(Node<E> node) {
+                for (; node != null; node = node.left) {
+                    path.push(node);
+                }
+            }
+        };
+    }
+
+    /**
+     * Returns a list with the element at {@code index} replaced.
+     */
+    public PersistentList<E> with(int index, E element) {
+        checkIndex(index, size());
+        return new PersistentList<>(set(root, index, element));
+    }
+
+    /**
+     * Returns a list with {@code element} inserted at {@code index}.
+     */
+    public PersistentList<E> plus(int index, E element) {
+        checkIndex(index, size() + 1);
+        return new PersistentList<>(insert(root, index, element));
+    }
+
+    /**
+     * Returns a list without the element at {@code index}.
+     */
+    public PersistentList<E> minus(int index) {
+        checkIndex(index, size());
+        return new PersistentList<>(remove(root, index));
+    }
+
+    /**
+     * Returns a mutable list that starts with the elements of this list. Changes to the
+     * editor never affect this list.
+     */
+    public Editor<E> edit() {
+        return new Editor<>(this);
+    }
+
+    /**
+     * A mutable list over a persistent one. Every change produces a new persistent version
+     * internally, so the list it was created from is never modified.
+     *
+     * @param <E> the element type
+     */
+    public static final class Editor<E> extends AbstractList<E> implements RandomAccess {
+
+        private PersistentList<E> current;
+
+        private Editor(PersistentList<E> list) {
+            this.current = list;
+        }
+
+        @Override
+        public E get(int index) {
+            return current.get(index);
+        }
+
+        @Override
+        public int size() {
+            return current.size();
+        }
+
+        @Override
+        public E set(int index, E element) {
+            E previous = current.get(index);
+            current = current.with(index, element);
+            return previous;
+        }
+
+        @Override
+        public void add(int index, E element) {
+            current = current.plus(index, element);
+            modCount++;
+        }
+
+        @Override
+        public E remove(int index) {
+            E previous = current.get(index);
+            current = current.minus(index);
+            modCount++;
+            return previous;
+        }
+
+        /**
+         * Returns the current contents as a persistent list.
+         */
+        public PersistentList<E> toPersistentList() {
+            return current;
+        }
+    }
+
+    private record Node<E>(Node<E> left, E value, Node<E> right, int size, int height) {
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static int height(Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static <E> Node<E> node(Node<E> left, E value, Node<E> right) {
+        return new Node<>(left, value, right, size(left) + size(right) + 1, Math.max(height(left), height(right)) + 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> Node<E> build(Object[] elements, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        return node(build(elements, from, middle), (E) elements[middle], build(elements, middle + 1, to));
+    }
+
+    private static <E> Node<E> set(Node<E> node, int index, E element) {
+        int leftSize = size(node.left);
+        if (index < leftSize) {
+            return new Node<>(set(node.left, index, element), node.value, node.right, node.size, node.height);
+        } else if (index > leftSize) {
+            return new Node<>(node.left, node.value, set(node.right, index - leftSize - 1, element), node.size,
+                    node.height);
+        }
+        return new Node<>(node.left, element, node.right, node.size, node.height);
+    }
+
+    private static <E> Node<E> insert(Node<E> node, int index, E element) {
+        if (node == null) {
+            return node(null, element, null);
+        }
+        int leftSize = size(node.left);
+        if (index <= leftSize) {
+            return balance(insert(node.left, index, element), node.value, node.right);
+        }
+        return balance(node.left, node.value, insert(node.right, index - leftSize - 1, element));
+    }
+
+    private static <E> Node<E> remove(Node<E> node, int index) {
+        int leftSize = size(node.left);
+        if (index < leftSize) {
+            return balance(remove(node.left, index), node.value, node.right);
+        } else if (index > leftSize) {
+            return balance(node.left, node.value, remove(node.right, index - leftSize - 1));
+        } else if (node.left == null) {
+            return node.right;
+        } else if (node.right == null) {
+            return node.left;
+        }
+
+        // Replace the removed node by its in-order successor
+        Node<E> successor = node.right;
+        while (successor.left != null) {
+            successor = successor.left;
+        }
+        return balance(node.left, successor.value, remove(node.right, 0));
+    }
+
+    // Builds a node from subtrees whose heights differ by at most two, restoring the AVL invariant
+    private static <E> Node<E> balance(Node<E> left, E value, Node<E> right) {
+        if (height(left) > height(right) + 1) {
+            if (height(left.left) >= height(left.right)) {
+                return node(left.left, left.value, node(left.right, value, right));
+            }
+            Node<E> pivot = left.right;
+            return node(node(left.left, left.value, pivot.left), pivot.value, node(pivot.right, value, right));
+        }
+        if (height(right) > height(left) + 1) {
+            if (height(right.right) >= height(right.left)) {
+                return node(node(left, value, right.left), right.value, right.right);
+            }
+            Node<E> pivot = right.left;
+            return node(node(left, value, pivot.left), pivot.value, node(pivot.right, right.value, right.right));
+        }
+        return node(left, value, right);
+    }
+
+    private static void checkIndex(int index, int size) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+}
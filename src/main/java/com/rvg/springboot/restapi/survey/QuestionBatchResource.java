@@ -0,0 +1,79 @@
+/**
+ * This class is a REST controller for fetching many questions in one round trip.
+ *
+ * Endpoints:
+ * - POST /questions:batchGet: Retrieve the questions for a list of (surveyId, questionId)
+ *   pairs, possibly spanning several surveys.
+ *
+ * Results are returned in request order. Pairs that do not resolve to a question are
+ * returned with {@code found=false} instead of failing the whole batch; a null element
+ * rejects the batch with 400 Bad Request. Each lookup is constant time, so the cost is
+ * proportional to the batch size.
+ *
+ * Example request body:
+ * [
+ *   { "surveyId": "Survey1", "questionId": "Question1" },
+ *   { "surveyId": "Survey2", "questionId": "Question7" }
+ * ]
+ *
+ * @author rvega
+ */
+package com.rvg.springboot.restapi.survey;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@RestController
+public class QuestionBatchResource {
+
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    /**
+     * The result for one requested pair.
+     *
+     * @param surveyId   the requested survey ID
+     * @param questionId the requested question ID
+     * @param found      whether the question exists
+     * @param question   the question, omitted when not found
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record QuestionResult(String surveyId, String questionId, boolean found, Question question) {
+    }
+
+    private final SurveyService surveyService;
+
+    public QuestionBatchResource(SurveyService surveyService) {
+        this.surveyService = surveyService;
+    }
+
+    // Mapping HTTP POST requests to the specified URL pattern
+    // The method retrieves the requested questions in request order
+    @RequestMapping(value = "/questions:batchGet", method = RequestMethod.POST)
+    public List<QuestionResult> batchGetQuestions(@RequestBody List<QuestionReference> references) {
+        if (references.size() > MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + MAX_BATCH_SIZE + " questions can be requested at once");
+        }
+        if (references.contains(null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Question references must not be null");
+        }
+
+        List<Question> questions = surveyService.retrieveQuestions(references);
+        List<QuestionResult> results = new ArrayList<>(references.size());
+        for (int i = 0; i < references.size(); i++) {
+            QuestionReference reference = references.get(i);
+            Question question = questions.get(i);
+            results.add(new QuestionResult(reference.surveyId(), reference.questionId(), question != null, question));
+        }
+        return results;
+    }
+}
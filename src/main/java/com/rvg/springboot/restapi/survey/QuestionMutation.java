@@ -0,0 +1,21 @@
+package com.rvg.springboot.restapi.survey;
+
+import java.util.List;
+
+/**
+ * A change to the questions of a survey.
+ *
+ * <p>Mutations are applied to a private working copy of the question list; the survey is
+ * republished with the new list once every mutation of the commit has been applied.</p>
+ */
+@FunctionalInterface
+interface QuestionMutation {
+
+    /**
+     * Applies the change.
+     *
+     * @param questions the working copy of the survey's questions
+     * @return the ID of the affected question, or null if the change did not apply
+     */
+    String apply(List<Question> questions);
+}
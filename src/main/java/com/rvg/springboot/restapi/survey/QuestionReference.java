@@ -0,0 +1,10 @@
+package com.rvg.springboot.restapi.survey;
+
+/**
+ * Identifies a question by the survey it belongs to and its own ID.
+ *
+ * @param surveyId   the ID of the survey
+ * @param questionId the ID of the question within the survey
+ */
+public record QuestionReference(String surveyId, String questionId) {
+}
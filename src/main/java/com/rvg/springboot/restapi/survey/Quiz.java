@@ -0,0 +1,193 @@
+package com.rvg.springboot.restapi.survey;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SplittableRandom;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * A survey as delivered to one respondent: questions and options in a shuffled order.
+ *
+ * <p>The order is a deterministic function of the survey ID and respondent ID, so the
+ * same respondent always sees the same quiz and no per-respondent state has to be kept.
+ * Nothing is copied: {@link #getQuestions()} is a view that maps each position to the
+ * shared, immutable {@link Question} through an index permutation, and each question's
+ * options are a view of the original option list in the same way. A question without
+ * options is shown with an empty option list.</p>
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ * {@code
+ * Quiz quiz = new Quiz(survey, "respondent-42");
+ * List<Quiz.ShuffledQuestion> questions = quiz.getQuestions();
+ * int original = quiz.toOriginalOptionIndex("Question1", 2);
+ * }
+ * </pre>
+ *
+ * @author rvega
+ */
+public class Quiz {
+
+    private final Survey survey;
+    private final List<Question> questions;
+    private final long seed;
+    private final int[] questionOrder;
+
+    public Quiz(Survey survey, String respondentId) {
+        this.survey = survey;
+        this.questions = survey.getQuestions();
+        this.seed = hash(survey.getId() + "\u0000" + respondentId);
+        this.questionOrder = permutation(questions.size(), seed);
+    }
+
+    /**
+     * Returns the questions in the respondent's order.
+     *
+     * @return a read-only view over the survey's questions
+     */
+    public List<ShuffledQuestion> getQuestions() {
+        return new AbstractList<>() {
+            @Override
+            public ShuffledQuestion get(int index) {
+                return new ShuffledQuestion(questions.get(questionOrder[index]), seed);
+            }
+
+            @Override
+            public int size() {
+                return questionOrder.length;
+            }
+        };
+    }
+
+    /**
+     * Maps an option index as shown to the respondent back to the index in the original
+     * {@link Question#getOptions()} list.
+     *
+     * @param questionId    the question ID
+     * @param shuffledIndex the index of the option in the respondent's order
+     * @return the original option index, or -1 if the question or index does not exist
+     */
+    public int toOriginalOptionIndex(String questionId, int shuffledIndex) {
+        Question question = survey.findQuestion(questionId);
+        if (question == null || shuffledIndex < 0 || shuffledIndex >= optionsOf(question).size()) {
+            return -1;
+        }
+
+        return optionOrder(question, seed)[shuffledIndex];
+    }
+
+    /**
+     * Scores answers given as shuffled option indices.
+     *
+     * @param answers shuffled option index per question ID
+     * @return the number of correct answers and the original option index of each answer
+     */
+    public Score score(Map<String, Integer> answers) {
+        int correct = 0;
+        Map<String, Integer> originalAnswers = new LinkedHashMap<>();
+
+        for (Map.Entry<String, Integer> answer : answers.entrySet()) {
+            int original = answer.getValue() == null ? -1 : toOriginalOptionIndex(answer.getKey(), answer.getValue());
+            originalAnswers.put(answer.getKey(), original);
+
+            Question question = original < 0 ? null : survey.findQuestion(answer.getKey());
+            if (question != null && Objects.equals(optionsOf(question).get(original), question.getCorrectAnswer())) {
+                correct++;
+            }
+        }
+
+        return new Score(correct, questions.size(), originalAnswers);
+    }
+
+    // Questions without options are treated as having none
+    private static List<String> optionsOf(Question question) {
+        List<String> options = question.getOptions();
+        return options == null ? List.of() : options;
+    }
+
+    /**
+     * A question as shown to a respondent: its options are shuffled and the correct answer
+     * is not exposed.
+     */
+    @JsonPropertyOrder({ "id", "description", "options" })
+    public static class ShuffledQuestion {
+
+        private final Question question;
+        private final int[] optionOrder;
+
+        ShuffledQuestion(Question question, long quizSeed) {
+            this.question = question;
+            this.optionOrder = optionOrder(question, quizSeed);
+        }
+
+        public String getId() {
+            return question.getId();
+        }
+
+        public String getDescription() {
+            return question.getDescription();
+        }
+
+        public List<String> getOptions() {
+            List<String> options = optionsOf(question);
+            return new AbstractList<>() {
+                @Override
+                public String get(int index) {
+                    return options.get(optionOrder[index]);
+                }
+
+                @Override
+                public int size() {
+                    return optionOrder.length;
+                }
+            };
+        }
+    }
+
+    /**
+     * Result of scoring a respondent's answers.
+     *
+     * @param correct         the number of correct answers
+     * @param total           the number of questions in the survey
+     * @param originalAnswers the original option index of each answer, -1 if invalid
+     */
+    public record Score(int correct, int total, Map<String, Integer> originalAnswers) {
+    }
+
+    // Option order of a question, derived from the quiz seed and the question ID
+    private static int[] optionOrder(Question question, long quizSeed) {
+        return permutation(optionsOf(question).size(), quizSeed ^ hash(String.valueOf(question.getId())));
+    }
+
+    // Fisher-Yates shuffle of 0..size-1 driven by a seeded generator
+    static int[] permutation(int size, long seed) {
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        return order;
+    }
+
+    // 64-bit FNV-1a: stable across JVMs, unlike identity hashes
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
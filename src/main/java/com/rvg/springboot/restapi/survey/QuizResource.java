@@ -0,0 +1,68 @@
+/**
+ * This class is a REST controller that delivers surveys as personalized, shuffled quizzes.
+ *
+ * Endpoints:
+ * - GET /surveys/{surveyId}/quiz?respondent={respondentId}: Retrieve the questions in the
+ *   respondent's shuffled order, with shuffled options and without correct answers.
+ * - POST /surveys/{surveyId}/quiz/score?respondent={respondentId}: Score answers given as
+ *   option indices in the respondent's shuffled order.
+ *
+ * The order is derived from the respondent ID, so a respondent always gets the same quiz.
+ * Questions are served as views over the shared survey data; nothing is copied per request.
+ *
+ * @author rvega
+ */
+package com.rvg.springboot.restapi.survey;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+@RequestMapping("/surveys/{surveyId}/quiz")
+public class QuizResource {
+
+    private final SurveyService surveyService;
+
+    public QuizResource(SurveyService surveyService) {
+        this.surveyService = surveyService;
+    }
+
+    // Mapping HTTP GET requests to the specified URL pattern
+    // The method retrieves the shuffled questions for a respondent
+    @RequestMapping(method = RequestMethod.GET)
+    public List<Quiz.ShuffledQuestion> retrieveQuiz(@PathVariable String surveyId, @RequestParam String respondent) {
+        return quizFor(surveyId, respondent).getQuestions();
+    }
+
+    /**
+     * Scores a respondent's answers.
+     *
+     * @param surveyId   the ID of the survey
+     * @param respondent the ID of the respondent the quiz was delivered to
+     * @param answers    the chosen option index per question ID, in the respondent's order
+     * @return the score and the original option index of each answer
+     */
+    @RequestMapping(value = "/score", method = RequestMethod.POST)
+    public Quiz.Score scoreQuiz(@PathVariable String surveyId, @RequestParam String respondent,
+            @RequestBody Map<String, Integer> answers) {
+        return quizFor(surveyId, respondent).score(answers);
+    }
+
+    private Quiz quizFor(String surveyId, String respondent) {
+        Survey survey = surveyService.retrieveSurveyById(surveyId);
+        if (survey == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Survey not found");
+        }
+
+        return new Quiz(survey, respondent);
+    }
+}
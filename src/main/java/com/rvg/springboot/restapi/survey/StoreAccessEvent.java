@@ -0,0 +1,60 @@
+package com.rvg.springboot.restapi.survey;
+
+import com.rvg.springboot.restapi.profiling.StoreAccessTimer;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event for one access to the survey store in {@link SurveyService}.
+ *
+ * <p>Shares the "Survey API" category with the request phase events, so a slow handler
+ * phase can be matched with the store reads and commits it made. A commit includes the
+ * journal flush. Committing is a no-op while no recording has the event enabled.</p>
+ *
+ * <p>{@link #complete()} also adds the duration to the profiled request on the current
+ * thread, which reports it as {@code storeMillis} among the slow requests.</p>
+ */
+@Name("com.rvg.survey.StoreAccess")
+@Label("Store Access")
+@Description("Survey store read or commit, including the journal flush of a commit")
+@Category({ "Survey API", "Store" })
+@StackTrace(false)
+final class StoreAccessEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Survey ID")
+    String surveyId;
+
+    @Label("Items")
+    @Description("Questions looked up or mutations committed")
+    int items;
+
+    // Not an event field; measured independently of whether a recording is running
+    private final transient long startNanos = System.nanoTime();
+
+    private StoreAccessEvent(String operation, String surveyId, int items) {
+        this.operation = operation;
+        this.surveyId = surveyId;
+        this.items = items;
+    }
+
+    // Creates the event and starts timing it
+    static StoreAccessEvent begin(String operation, String surveyId, int items) {
+        StoreAccessEvent event = new StoreAccessEvent(operation, surveyId, items);
+        event.begin();
+        return event;
+    }
+
+    // Commits the event and adds its duration to the current request's profile
+    void complete() {
+        commit();
+        StoreAccessTimer.add(System.nanoTime() - startNanos);
+    }
+}
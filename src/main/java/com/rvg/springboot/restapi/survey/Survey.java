@@ -3,7 +3,9 @@
  */
 package com.rvg.springboot.restapi.survey;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class Survey {
 
@@ -25,6 +27,9 @@ public class Survey {
     private String description;
     private List<Question> questions;
 
+    // Question ID index, built on first lookup; published surveys are never modified in place
+    private transient volatile Map<String, Question> questionIndex;
+
     // Getters for the fields of the Survey object
     public String getId() {
         return id;
@@ -42,6 +47,42 @@ public class Survey {
         return questions;
     }
 
+    /**
+     * Looks up a question by its ID in constant time.
+     *
+     * @param questionId the ID of the question
+     * @return the first question with the ID, or null if there is none
+     */
+    public Question findQuestion(String questionId) {
+        Map<String, Question> index = questionIndex;
+        if (index == null) {
+            index = new HashMap<>();
+            if (questions != null) {
+                for (Question question : questions) {
+                    index.putIfAbsent(question.getId(), question);
+                }
+            }
+            questionIndex = index;
+        }
+        return index.get(questionId);
+    }
+
+    // Returns a copy of this survey with a different question list
+    public Survey withQuestions(List<Question> newQuestions) {
+        return new Survey(id, title, description, newQuestions);
+    }
+
+    /**
+     * Returns a survey with a new identity that shares this survey's questions and question
+     * index. Runs in constant time; the question list must not be modified afterwards,
+     * which holds for published surveys.
+     */
+    public Survey copy(String newId, String newTitle, String newDescription) {
+        Survey copy = new Survey(newId, newTitle, newDescription, questions);
+        copy.questionIndex = questionIndex;
+        return copy;
+    }
+
     // toString method to print the Survey object
     @Override
     public String toString() {
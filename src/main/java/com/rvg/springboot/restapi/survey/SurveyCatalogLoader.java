@@ -0,0 +1,287 @@
+/**
+ * Loads surveys from a directory of JSON / NDJSON files and keeps them up to date.
+ *
+ * <p>The directory is configured with {@code survey.catalog.directory}. When it is not set
+ * the loader does nothing and only the built-in seed survey is available.</p>
+ *
+ * <p>Supported files:</p>
+ * <ul>
+ *   <li>{@code *.json} - a single survey object or an array of surveys.</li>
+ *   <li>{@code *.ndjson} - one survey object per line.</li>
+ * </ul>
+ *
+ * <p>Files are parsed in parallel with a streaming reader, so a file is never held in
+ * memory as a whole and each survey is published as soon as it is parsed. Loading runs
+ * in a background thread, which keeps application startup time independent of the catalog
+ * size. After the initial load the directory is watched with a NIO {@link WatchService}
+ * (disable with {@code survey.catalog.watch=false}); changed files are re-parsed and their
+ * surveys are swapped into {@link SurveyService} one by one, without blocking readers.
+ * Surveys that disappear from the catalog are removed together with their schedules, and
+ * the {@link SubmissionListener}s drop the statistics they keep about them.</p>
+ *
+ * @author rvega
+ */
+package com.rvg.springboot.restapi.survey;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.rvg.springboot.restapi.response.SubmissionListener;
+import com.rvg.springboot.restapi.schedule.SurveyScheduler;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Eager even with lazy initialization, otherwise the catalog would never be loaded
+@Component
+@Lazy(false)
+public class SurveyCatalogLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(SurveyCatalogLoader.class);
+
+    // Number of parsed surveys handed to the service at once
+    private static final int PUBLISH_BATCH_SIZE = 256;
+
+    private final SurveyService surveyService;
+    private final SurveyScheduler surveyScheduler;
+    private final ObjectProvider<SubmissionListener> submissionListeners;
+    private final ObjectReader surveyReader;
+    private final String directory;
+    private final boolean watch;
+
+    // Survey IDs contributed by each file, used to drop surveys removed from a file
+    private final Map<Path, Set<String>> surveyIdsByFile = new ConcurrentHashMap<>();
+
+    private volatile WatchService watchService;
+    private Thread loaderThread;
+
+    public SurveyCatalogLoader(SurveyService surveyService, SurveyScheduler surveyScheduler,
+            ObjectProvider<SubmissionListener> submissionListeners, ObjectMapper objectMapper,
+            @Value("${survey.catalog.directory:}") String directory,
+            @Value("${survey.catalog.watch:true}") boolean watch) {
+        this.surveyService = surveyService;
+        this.surveyScheduler = surveyScheduler;
+        this.submissionListeners = submissionListeners;
+        this.surveyReader = objectMapper.readerFor(Survey.class);
+        this.directory = directory;
+        this.watch = watch;
+    }
+
+    // Start loading in the background so startup does not wait for the catalog
+    @PostConstruct
+    public void start() {
+        if (directory == null || directory.isBlank()) {
+            return;
+        }
+
+        Path catalogDirectory = Paths.get(directory);
+        if (!Files.isDirectory(catalogDirectory)) {
+            log.warn("Survey catalog directory {} does not exist, skipping catalog loading", catalogDirectory);
+            return;
+        }
+
+        loaderThread = new Thread(() -> run(catalogDirectory), "survey-catalog-loader");
+        loaderThread.setDaemon(true);
+        loaderThread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        WatchService service = watchService;
+        if (service != null) {
+            service.close();
+        }
+        if (loaderThread != null) {
+            loaderThread.interrupt();
+        }
+    }
+
+    private void run(Path catalogDirectory) {
+        try {
+            // Register the watcher first so changes made during the initial load are not missed
+            if (watch) {
+                watchService = catalogDirectory.getFileSystem().newWatchService();
+                catalogDirectory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            }
+
+            loadAll(catalogDirectory);
+
+            if (watch) {
+                watchForChanges(catalogDirectory);
+            }
+        } catch (ClosedWatchServiceException e) {
+            // Application is shutting down
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.error("Survey catalog loading from {} failed", catalogDirectory, e);
+        }
+    }
+
+    /**
+     * Parses every catalog file in the directory in parallel.
+     *
+     * @param catalogDirectory the directory to load
+     */
+    void loadAll(Path catalogDirectory) throws IOException, InterruptedException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(catalogDirectory, "*.{json,ndjson}")) {
+            stream.forEach(files::add);
+        }
+
+        long start = System.nanoTime();
+        int parallelism = Math.max(1, Math.min(files.size(), Runtime.getRuntime().availableProcessors()));
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (Path file : files) {
+                results.add(executor.submit(() -> {
+                    loadFile(file);
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                try {
+                    result.get();
+                } catch (ExecutionException e) {
+                    log.warn("Survey catalog file failed to load", e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        log.info("Loaded survey catalog: {} files in {} ms", files.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Streams the surveys of one file into the service and removes surveys the file no
+     * longer contains. If the file cannot be parsed, the surveys parsed before the error
+     * stay published and nothing is removed.
+     *
+     * @param file the catalog file
+     */
+    void loadFile(Path file) throws IOException {
+        Set<String> loadedIds = new HashSet<>();
+        List<Survey> batch = new ArrayList<>(PUBLISH_BATCH_SIZE);
+
+        try (InputStream input = Files.newInputStream(file);
+                MappingIterator<Survey> iterator = surveyReader.readValues(input)) {
+            while (iterator.hasNextValue()) {
+                Survey survey = iterator.nextValue();
+                if (survey.getId() == null) {
+                    continue;
+                }
+                if (survey.getQuestions() == null) {
+                    survey = new Survey(survey.getId(), survey.getTitle(), survey.getDescription(), new ArrayList<>());
+                }
+                batch.add(survey);
+                loadedIds.add(survey.getId());
+                if (batch.size() == PUBLISH_BATCH_SIZE) {
+                    surveyService.publishSurveys(batch);
+                    batch.clear();
+                }
+            }
+        }
+        surveyService.publishSurveys(batch);
+
+        Set<String> previousIds = surveyIdsByFile.put(file, loadedIds);
+        if (previousIds != null) {
+            previousIds.removeAll(loadedIds);
+            removeSurveys(previousIds);
+        }
+    }
+
+    // Drop all surveys contributed by a deleted file
+    void unloadFile(Path file) {
+        Set<String> previousIds = surveyIdsByFile.remove(file);
+        if (previousIds != null) {
+            removeSurveys(previousIds);
+        }
+    }
+
+    // Surveys dropped from the catalog lose their schedules and statistics too
+    private void removeSurveys(Set<String> surveyIds) {
+        for (String removed : surveyService.removeSurveys(surveyIds)) {
+            surveyScheduler.unschedule(removed);
+            submissionListeners.forEach(listener -> listener.onSurveyRemoved(removed));
+        }
+    }
+
+    private void watchForChanges(Path catalogDirectory) throws InterruptedException {
+        while (!Thread.currentThread().isInterrupted()) {
+            WatchKey key = watchService.take();
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    reloadQuietly(catalogDirectory);
+                    continue;
+                }
+
+                Path file = catalogDirectory.resolve((Path) event.context());
+                if (!isCatalogFile(file)) {
+                    continue;
+                }
+
+                if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                    unloadFile(file);
+                    log.info("Survey catalog file {} removed", file);
+                } else {
+                    try {
+                        loadFile(file);
+                        log.info("Survey catalog file {} reloaded", file);
+                    } catch (IOException e) {
+                        log.warn("Survey catalog file {} failed to reload, keeping previous content", file, e);
+                    }
+                }
+            }
+            if (!key.reset()) {
+                log.warn("Survey catalog directory {} is no longer accessible, stopped watching", catalogDirectory);
+                return;
+            }
+        }
+    }
+
+    // Events were lost, so re-read the whole directory
+    private void reloadQuietly(Path catalogDirectory) throws InterruptedException {
+        try {
+            loadAll(catalogDirectory);
+        } catch (IOException e) {
+            log.warn("Survey catalog reload of {} failed", catalogDirectory, e);
+        }
+    }
+
+    private static boolean isCatalogFile(Path file) {
+        String name = file.getFileName().toString();
+        return name.endsWith(".json") || name.endsWith(".ndjson");
+    }
+}
@@ -0,0 +1,104 @@
+/**
+ * This class is a REST controller for creating surveys from templates.
+ *
+ * Endpoints:
+ * - POST /surveys/{surveyId}:clone: Create a new survey with the questions of an existing one.
+ *
+ * The optional request body sets the new survey's ID, title and description; missing
+ * values are generated or taken from the template. An ID must be 1 to 64 letters, digits,
+ * '_' or '-', otherwise the response is 400. The clone shares the template's
+ * questions, so cloning takes the same time for any template size. Changing a question of
+ * the clone replaces it in the clone only. The response is 201 with the new survey's URL in
+ * the Location header.
+ *
+ * Example request body:
+ * { "id": "Survey1-2026-10", "title": "October survey" }
+ *
+ * @author rvega
+ */
+package com.rvg.springboot.restapi.survey;
+
+import java.net.URI;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.rvg.springboot.restapi.cluster.ClusterMembership;
+
+@RestController
+public class SurveyCloneResource {
+
+    /**
+     * Properties of the new survey; all optional.
+     *
+     * @param id          the ID of the new survey
+     * @param title       the title of the new survey
+     * @param description the description of the new survey
+     */
+    public record CloneRequest(String id, String title, String description) {
+    }
+
+    // IDs appear in URLs and file names, so they are limited to characters that are safe in both
+    private static final Pattern SURVEY_ID_PATTERN = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    private final SurveyService surveyService;
+
+    // Present in cluster mode only
+    private final ObjectProvider<ClusterMembership> clusterMembership;
+
+    public SurveyCloneResource(SurveyService surveyService, ObjectProvider<ClusterMembership> clusterMembership) {
+        this.surveyService = surveyService;
+        this.clusterMembership = clusterMembership;
+    }
+
+    // Mapping HTTP POST requests to the specified URL pattern
+    // The method creates a new survey sharing the questions of the template survey
+    @RequestMapping(value = "/surveys/{surveyId}:clone", method = RequestMethod.POST)
+    public ResponseEntity<Void> cloneSurvey(@PathVariable String surveyId,
+            @RequestBody(required = false) CloneRequest request) {
+        CloneRequest properties = request != null ? request : new CloneRequest(null, null, null);
+        ClusterMembership membership = clusterMembership.getIfAvailable();
+
+        String newId = properties.id();
+        if (newId == null || newId.isBlank()) {
+            newId = generateId(membership);
+        } else if (!SURVEY_ID_PATTERN.matcher(newId).matches()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Survey ID must be 1 to 64 letters, digits, '_' or '-'");
+        } else if (membership != null && !membership.isLocal(newId)) {
+            // Requests for the new survey would be routed to its owner, which does not have it
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Survey " + newId + " belongs to another cluster node; choose another ID or omit it");
+        }
+
+        Survey clone;
+        try {
+            clone = surveyService.cloneSurvey(surveyId, newId, properties.title(), properties.description());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+        if (clone == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Survey not found");
+        }
+
+        return ResponseEntity.created(URI.create("/surveys/" + newId)).build();
+    }
+
+    // In cluster mode, pick an ID this node owns so the clone can stay next to its template
+    private static String generateId(ClusterMembership membership) {
+        String id = UUID.randomUUID().toString();
+        while (membership != null && !membership.isLocal(id)) {
+            id = UUID.randomUUID().toString();
+        }
+        return id;
+    }
+}
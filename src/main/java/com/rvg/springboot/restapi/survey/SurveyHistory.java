@@ -0,0 +1,124 @@
+package com.rvg.springboot.restapi.survey;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The retained versions of one survey.
+ *
+ * <p>Versions only reference their {@link Survey}; since question lists are
+ * {@link PersistentList}s, consecutive versions share every question that did not change.
+ * Versions are recorded by the holder of the survey's commit lock; readers never lock.
+ * The current version is always retained, older ones are pruned by the {@link Retention}
+ * policy when a new version is recorded. Reads prune versions older than the maximum age
+ * as well, so a survey that stops changing neither keeps nor returns expired versions.</p>
+ */
+class SurveyHistory {
+
+    /**
+     * How many versions to keep.
+     *
+     * @param maxVersions the maximum number of versions per survey, 0 for no limit
+     * @param maxAge      how long a version is kept after it was replaced, zero for no limit
+     */
+    record Retention(int maxVersions, Duration maxAge) {
+
+        static final Retention DEFAULT = new Retention(100, Duration.ZERO);
+    }
+
+    private final Retention retention;
+
+    private final ConcurrentNavigableMap<Long, SurveyVersion> byVersion = new ConcurrentSkipListMap<>();
+
+    // Latest version committed at each instant, for asOf lookups
+    private final ConcurrentNavigableMap<Instant, SurveyVersion> byTime = new ConcurrentSkipListMap<>();
+
+    // Guarded by the survey's commit lock
+    private long lastVersion;
+    private Instant lastCommittedAt = Instant.MIN;
+
+    // Readers prune concurrently with the writer, so only the thread that removes a version counts it
+    private final AtomicInteger retained = new AtomicInteger();
+
+    SurveyHistory(Retention retention) {
+        this.retention = retention;
+    }
+
+    /**
+     * Records a new current version of the survey.
+     */
+    SurveyVersion record(Survey survey, Instant now) {
+        // Keep commit times monotonic even if the wall clock steps back
+        Instant committedAt = now.isAfter(lastCommittedAt) ? now : lastCommittedAt;
+        SurveyVersion version = new SurveyVersion(++lastVersion, committedAt, survey);
+        lastCommittedAt = committedAt;
+
+        byVersion.put(version.version(), version);
+        byTime.put(committedAt, version);
+        retained.incrementAndGet();
+
+        prune(now, true);
+        return version;
+    }
+
+    SurveyVersion version(long version, Instant now) {
+        prune(now, false);
+        return byVersion.get(version);
+    }
+
+    /**
+     * Returns the version that was current at the given instant, or null if that version
+     * is no longer retained or the survey did not exist yet.
+     */
+    SurveyVersion asOf(Instant instant, Instant now) {
+        prune(now, false);
+        Map.Entry<Instant, SurveyVersion> entry = byTime.floorEntry(instant);
+        if (entry == null) {
+            return null;
+        }
+
+        // Pruning may have removed the version since the lookup
+        SurveyVersion version = entry.getValue();
+        return byVersion.containsKey(version.version()) ? version : null;
+    }
+
+    List<SurveyVersion> versions(Instant now) {
+        prune(now, false);
+        return new ArrayList<>(byVersion.values());
+    }
+
+    // Only the writer enforces maxVersions; the count cannot grow between writes
+    private void prune(Instant now, boolean writer) {
+        if (!writer && retention.maxAge().isZero()) {
+            return;
+        }
+
+        while (retained.get() > 1) {
+            Map.Entry<Long, SurveyVersion> oldest = byVersion.firstEntry();
+            // The current version has no successor and is never pruned
+            Map.Entry<Long, SurveyVersion> successor = oldest == null ? null : byVersion.higherEntry(oldest.getKey());
+            if (successor == null) {
+                return;
+            }
+
+            boolean tooMany = writer && retention.maxVersions() > 0 && retained.get() > retention.maxVersions();
+            // A version expires maxAge after it stopped being current
+            boolean tooOld = !retention.maxAge().isZero()
+                    && successor.getValue().committedAt().plus(retention.maxAge()).isBefore(now);
+            if (!tooMany && !tooOld) {
+                return;
+            }
+
+            if (byVersion.remove(oldest.getKey(), oldest.getValue())) {
+                byTime.remove(oldest.getValue().committedAt(), oldest.getValue());
+                retained.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,263 @@
+/**
+ * Append-only journal that makes survey mutations durable.
+ *
+ * <p>Every committed survey state is appended as one JSON line to the file configured with
+ * {@code survey.journal.file}. When the property is not set the journal is disabled and
+ * all methods are no-ops, so surveys only live in memory as before.</p>
+ *
+ * <p>Flushing to disk uses group commit: a writer that needs its record to be durable
+ * calls {@link #sync(long)}, and a single {@code force} covers every record appended
+ * before it. Concurrent commits therefore share one fsync instead of paying one each.</p>
+ *
+ * <p>On startup {@link #replay()} returns the latest state of every journaled survey and
+ * compacts the file down to those states. An unreadable last line is the remainder of an
+ * append interrupted by a crash; it is logged and dropped. Unreadable lines before the
+ * last one mean the file is corrupt, and replay fails.</p>
+ *
+ * <p>While running, the journal is compacted again whenever it grows past
+ * {@code survey.journal.compact-threshold} (default 64MB) and has at least doubled since the
+ * last compaction, so a survey that is edited over and over does not make the file grow
+ * without bound.</p>
+ *
+ * @author rvega
+ */
+package com.rvg.springboot.restapi.survey;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import com.fasterxml.jackson.core.JacksonException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import jakarta.annotation.PreDestroy;
+
+@Component
+public class SurveyMutationJournal implements Closeable {
+
+    static final DataSize DEFAULT_COMPACT_THRESHOLD = DataSize.ofMegabytes(64);
+
+    private static final Logger log = LoggerFactory.getLogger(SurveyMutationJournal.class);
+
+    private final Path file;
+    private final long compactThreshold;
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+
+    private FileChannel channel;
+
+    // Latest journaled state of each survey and the file size after the last compaction, guarded by "this"
+    private final Map<String, Survey> latest = new LinkedHashMap<>();
+    private long compactedSize;
+
+    // Sequence number of the last appended record, guarded by "this"
+    private long appendedSequence;
+
+    // Sequence number of the last record known to be on disk, guarded by syncLock
+    private long syncedSequence;
+    private final Object syncLock = new Object();
+
+    public SurveyMutationJournal(ObjectMapper objectMapper, String file) {
+        this(objectMapper, file, DEFAULT_COMPACT_THRESHOLD);
+    }
+
+    @Autowired
+    public SurveyMutationJournal(ObjectMapper objectMapper, @Value("${survey.journal.file:}") String file,
+            @Value("${survey.journal.compact-threshold:64MB}") DataSize compactThreshold) {
+        this.file = file == null || file.isBlank() ? null : Paths.get(file);
+        this.compactThreshold = compactThreshold.toBytes();
+        this.reader = objectMapper.readerFor(Survey.class);
+        this.writer = objectMapper.writerFor(Survey.class);
+    }
+
+    // Journal that keeps nothing, used when surveys only live in memory
+    static SurveyMutationJournal disabled() {
+        return new SurveyMutationJournal(new ObjectMapper(), null);
+    }
+
+    public boolean isEnabled() {
+        return file != null;
+    }
+
+    /**
+     * Reads the journal, compacts it to the latest state of each survey and opens it for
+     * appending.
+     *
+     * @return the latest journaled state of every survey, in journal order
+     */
+    public synchronized Collection<Survey> replay() {
+        if (file == null) {
+            return List.of();
+        }
+
+        try {
+            latest.clear();
+            if (Files.exists(file)) {
+                // Unlike Files.newBufferedReader, this decoder tolerates a character cut off by a crash
+                try (BufferedReader lines = new BufferedReader(
+                        new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8))) {
+                    int lineNumber = 0;
+                    int tornLine = 0;
+                    String torn = null;
+                    String line;
+                    while ((line = lines.readLine()) != null) {
+                        lineNumber++;
+                        if (line.isBlank()) {
+                            continue;
+                        }
+                        if (torn != null) {
+                            throw new IOException("Corrupt record at line " + tornLine + ": " + torn);
+                        }
+                        Survey survey;
+                        try {
+                            survey = reader.readValue(line);
+                        } catch (JacksonException e) {
+                            // Fatal unless it turns out to be the last record
+                            tornLine = lineNumber;
+                            torn = e.getOriginalMessage();
+                            continue;
+                        }
+                        latest.remove(survey.getId());
+                        latest.put(survey.getId(), survey);
+                    }
+                    if (torn != null) {
+                        log.warn("Dropping the incomplete last record of survey journal {}: {}", file, torn);
+                    }
+                }
+            }
+
+            // The compacted journal no longer contains an incomplete last record
+            compact();
+            return List.copyOf(latest.values());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot replay survey journal " + file, e);
+        }
+    }
+
+    /**
+     * Appends a survey state without waiting for it to reach the disk.
+     *
+     * @param survey the committed survey
+     * @return the sequence number to pass to {@link #sync(long)}
+     */
+    public synchronized long append(Survey survey) {
+        if (channel == null) {
+            return 0;
+        }
+
+        try {
+            write(channel, survey);
+            latest.remove(survey.getId());
+            latest.put(survey.getId(), survey);
+            long size = channel.size();
+            if (size > compactThreshold && size > 2 * compactedSize) {
+                compact();
+            }
+            return ++appendedSequence;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append to survey journal " + file, e);
+        }
+    }
+
+    // Rewrite the journal with one line per survey, switch to it atomically and reopen it for
+    // appending. The rewritten file is on disk before the switch, so it covers every record
+    // appended so far.
+    private void compact() throws IOException {
+        Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+        try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (Survey survey : latest.values()) {
+                write(out, survey);
+            }
+            out.force(true);
+        }
+        Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        if (channel != null) {
+            channel.close();
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        compactedSize = channel.size();
+    }
+
+    /**
+     * Blocks until the record with the given sequence number is on disk. Callers arriving
+     * while a flush is running are covered by the next single flush.
+     *
+     * @param sequence a sequence number returned by {@link #append(Survey)}
+     */
+    public void sync(long sequence) {
+        synchronized (syncLock) {
+            if (syncedSequence >= sequence) {
+                return;
+            }
+
+            long target;
+            FileChannel current;
+            synchronized (this) {
+                target = appendedSequence;
+                current = channel;
+            }
+            if (current == null) {
+                return;
+            }
+            try {
+                current.force(false);
+            } catch (ClosedChannelException e) {
+                synchronized (this) {
+                    // Replaced by a compaction or closed, both of which flushed everything up to target
+                    if (channel == current) {
+                        throw new UncheckedIOException("Cannot flush survey journal " + file, e);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot flush survey journal " + file, e);
+            }
+            syncedSequence = target;
+        }
+    }
+
+    @PreDestroy
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.force(false);
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private void write(FileChannel out, Survey survey) throws IOException {
+        byte[] json = writer.writeValueAsBytes(survey);
+        ByteBuffer buffer = ByteBuffer.allocate(json.length + 1);
+        buffer.put(json).put((byte) '\n').flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+}
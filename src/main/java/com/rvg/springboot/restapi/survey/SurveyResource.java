@@ -4,12 +4,19 @@
  * 
  * Endpoints:
  * - GET /surveys: Retrieve all surveys.
- * - GET /surveys/{surveyId}: Retrieve a specific survey by its ID.
+ * - GET /surveys/{surveyId}: Retrieve a specific survey by its ID. With ?version={n} or
+ *   ?asOf={ISO-8601 instant} the survey is retrieved as it was at that version or time.
+ * - GET /surveys/{surveyId}/versions: List the retained versions of a survey.
  * - GET /surveys/{surveyId}/questions: Retrieve all questions for a specific survey.
  * - GET /surveys/{surveyId}/questions/{questionId}: Retrieve a specific question from a specific survey.
- * - POST /surveys/{surveyId}/questions: Add a new question to a specific survey.
+ * - POST /surveys/{surveyId}/questions: Add a new question to a specific survey. Retries that
+ *   repeat the Idempotency-Key header of an earlier request get the original response.
  * - DELETE /surveys/{surveyId}/questions/{questionId}: Delete a specific question from a specific survey.
  * - PUT /surveys/{surveyId}/questions/{questionId}: Update a specific question in a specific survey.
+ * - PATCH /surveys/{surveyId}/questions/{questionId}: Partially update a question with a JSON Merge
+ *   Patch (application/merge-patch+json); the question keeps its ID and position.
+ * 
+ * Question edits are rejected with 409 Conflict while a survey's schedule has it closed.
  * 
  * This class uses the SurveyService to perform the actual operations on surveys and questions.
  * It handles HTTP requests and responses, including error handling for not found resources.
@@ -19,25 +26,42 @@
 package com.rvg.springboot.restapi.survey;
 
 import java.net.URI;
+import java.security.Principal;
+import java.time.Instant;
 import java.util.List;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.rvg.springboot.restapi.schedule.SurveyScheduler;
+
 @RestController
 @RequestMapping("/surveys")
 public class SurveyResource {
 
     private final SurveyService surveyService;
+    private final IdempotencyCache idempotencyCache;
+    private final ObjectMapper objectMapper;
+    private final SurveyScheduler surveyScheduler;
 
-    public SurveyResource(SurveyService surveyService) {
+    public SurveyResource(SurveyService surveyService, IdempotencyCache idempotencyCache, ObjectMapper objectMapper,
+            SurveyScheduler surveyScheduler) {
         this.surveyService = surveyService;
+        this.idempotencyCache = idempotencyCache;
+        this.objectMapper = objectMapper;
+        this.surveyScheduler = surveyScheduler;
     }
 
     // Mapping HTTP GET requests to the specified URL pattern
@@ -47,11 +71,32 @@ public class SurveyResource {
         return surveyService.retrieveAllSurveys();
     }
 
-    // Mapping HTTP GET requests to the specified URL pattern
-    // The method retrieves a specific survey
+    /**
+     * Retrieves a specific survey, either its current state or a past version.
+     *
+     * @param surveyId the ID of the survey
+     * @param version  optional version number to retrieve
+     * @param asOf     optional point in time; the version that was current then is retrieved
+     * @return the survey
+     */
     @RequestMapping(value = "/{surveyId}", method = RequestMethod.GET)
-    public Survey retrieveSurvey(@PathVariable String surveyId) {
-        Survey survey = surveyService.retrieveSurveyById(surveyId);
+    public Survey retrieveSurvey(@PathVariable String surveyId, @RequestParam(required = false) Long version,
+            @RequestParam(required = false) Instant asOf) {
+        if (version != null && asOf != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Use either version or asOf, not both");
+        }
+
+        Survey survey;
+        if (version != null) {
+            SurveyVersion surveyVersion = surveyService.retrieveSurveyVersion(surveyId, version);
+            survey = surveyVersion == null ? null : surveyVersion.survey();
+        } else if (asOf != null) {
+            SurveyVersion surveyVersion = surveyService.retrieveSurveyAsOf(surveyId, asOf);
+            survey = surveyVersion == null ? null : surveyVersion.survey();
+        } else {
+            survey = surveyService.retrieveSurveyById(surveyId);
+        }
+
         if (survey != null) {
             return survey;
         }
@@ -59,6 +104,31 @@ public class SurveyResource {
         throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Survey not found");
     }
 
+    /**
+     * Summary of a retained survey version.
+     *
+     * @param version     the version number
+     * @param committedAt when the version became current
+     * @param questions   the number of questions in the version
+     */
+    public record SurveyVersionSummary(long version, Instant committedAt, int questions) {
+    }
+
+    // Mapping HTTP GET requests to the specified URL pattern
+    // The method lists the retained versions of a specific survey, oldest first
+    @RequestMapping(value = "/{surveyId}/versions", method = RequestMethod.GET)
+    public List<SurveyVersionSummary> retrieveSurveyVersions(@PathVariable String surveyId) {
+        List<SurveyVersion> versions = surveyService.retrieveSurveyHistory(surveyId);
+        if (versions == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Survey not found");
+        }
+
+        return versions.stream()
+                .map(version -> new SurveyVersionSummary(version.version(), version.committedAt(),
+                        version.survey().getQuestions().size()))
+                .toList();
+    }
+
     // Mapping HTTP POST requests to the specified URL pattern
     // The method adds all the survey questions
     @RequestMapping(value = "/{surveyId}/questions", method = RequestMethod.GET)
@@ -86,12 +156,27 @@ public class SurveyResource {
     /**
      * Adds a new question to the specified survey.
      *
-     * @param surveyId the ID of the survey to which the question will be added
-     * @param question the question to be added to the survey
+     * @param surveyId       the ID of the survey to which the question will be added
+     * @param question       the question to be added to the survey
+     * @param idempotencyKey optional client-chosen key; a request repeating the key of an
+     *                       earlier request gets that request's response and adds nothing
+     * @param principal      the authenticated user; keys of different users never collide
      * @return a ResponseEntity with the location of the newly created question
      */
     @RequestMapping(value = "/{surveyId}/questions", method = RequestMethod.POST)
-    public ResponseEntity<Object> addNewSurveyQuestion(@PathVariable String surveyId, @RequestBody Question question) {
+    public ResponseEntity<Object> addNewSurveyQuestion(@PathVariable String surveyId, @RequestBody Question question,
+            @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey, Principal principal) {
+        requireOpenSurvey(surveyId);
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return addQuestion(surveyId, question);
+        }
+
+        String user = principal == null ? "" : principal.getName();
+        String key = user + "\u0000" + surveyId + "\u0000" + idempotencyKey;
+        return idempotencyCache.execute(key, () -> addQuestion(surveyId, question));
+    }
+
+    private ResponseEntity<Object> addQuestion(String surveyId, Question question) {
         String questionId = surveyService.addNewSurveyQuestion(surveyId, question);
         URI location = URI.create(String.format("/surveys/%s/questions/%s", surveyId, questionId));
         return ResponseEntity.created(location).build();
@@ -100,6 +185,8 @@ public class SurveyResource {
     // Mapping HTTP DELETE requests to the specified URL pattern
     @RequestMapping(value = "/{surveyId}/questions/{questionId}", method = RequestMethod.DELETE)
     public ResponseEntity<Void> deleteSurveyQuestion(@PathVariable String surveyId, @PathVariable String questionId) {
+        requireOpenSurvey(surveyId);
+
         // Attempt to delete the survey question
         String question = surveyService.deleteSurveyQuestion(surveyId, questionId);
 
@@ -124,6 +211,8 @@ public class SurveyResource {
     @RequestMapping(value = "/{surveyId}/questions/{questionId}", method = RequestMethod.PUT)
     public ResponseEntity<Void> updateSurveyQuestion(@PathVariable String surveyId, @PathVariable String questionId,
             @RequestBody Question question) {
+        requireOpenSurvey(surveyId);
+
         // Attempt to update the survey question
         String updatedQuestionId = surveyService.updateSurveyQuestion(surveyId, questionId, question);
 
@@ -136,4 +225,58 @@ public class SurveyResource {
         // Return a no-content response indicating successful update
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * Partially updates a question with a JSON Merge Patch (RFC 7396). Only the members
+     * present in the patch change; null members are removed. The question keeps its ID and
+     * its position in the survey, and the patch is applied atomically.
+     *
+     * @param surveyId   the ID of the survey containing the question
+     * @param questionId the ID of the question to patch
+     * @param patch      the merge patch, e.g. {@code {"description": "Fixed typo"}}
+     * @return the patched question
+     */
+    @RequestMapping(value = "/{surveyId}/questions/{questionId}", method = RequestMethod.PATCH,
+            consumes = JsonMergePatch.MEDIA_TYPE)
+    public Question patchSurveyQuestion(@PathVariable String surveyId, @PathVariable String questionId,
+            @RequestBody JsonNode patch) {
+        requireOpenSurvey(surveyId);
+        if (!patch.isObject()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A question patch must be a JSON object");
+        }
+        JsonNode id = patch.get("id");
+        if (id != null && !id.isNull() && !id.asText().equals(questionId)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The ID of a question cannot be changed");
+        }
+
+        Question patched;
+        try {
+            patched = surveyService.patchSurveyQuestion(surveyId, questionId, current -> applyPatch(current, patch));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        if (patched == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Error patching question: " + questionId);
+        }
+        return patched;
+    }
+
+    // A missing survey is reported as 404 even if a schedule for its ID is left over
+    private void requireOpenSurvey(String surveyId) {
+        if (surveyService.retrieveSurveyById(surveyId) == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Survey not found");
+        }
+        surveyScheduler.requireOpen(surveyId);
+    }
+
+    private Question applyPatch(Question current, JsonNode patch) {
+        ObjectNode merged = (ObjectNode) JsonMergePatch.apply(objectMapper.valueToTree(current), patch);
+        merged.put("id", current.getId());
+        try {
+            return objectMapper.treeToValue(merged, Question.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid question patch: " + e.getOriginalMessage(), e);
+        }
+    }
 }
@@ -2,18 +2,74 @@ package com.rvg.springboot.restapi.survey;
 
 import java.math.BigInteger;
 import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
+import com.rvg.springboot.restapi.profiling.StoreAccessTimer;
+
+import jakarta.annotation.PreDestroy;
+
+// Eager even with lazy initialization: replaying the journal belongs to startup, not the first request
 @Service
+@Lazy(false)
 public class SurveyService {
 
-    private static List<Survey> surveys = new ArrayList<>();
+    // Surveys keyed by ID; readers never lock, writers replace whole entries
+    private final ConcurrentMap<String, Survey> surveys = new ConcurrentSkipListMap<>();
+
+    // One lock per survey so commits to the same survey are journaled in order
+    private final ConcurrentMap<String, Object> commitLocks = new ConcurrentHashMap<>();
+
+    // Retained versions of each survey, recorded under the survey's commit lock
+    private final ConcurrentMap<String, SurveyHistory> histories = new ConcurrentHashMap<>();
+    private final SurveyHistory.Retention retention;
+
+    private final SurveyMutationJournal journal;
+
+    // Latest journaled state of each survey edited through the API; it takes precedence over catalog data
+    private final ConcurrentMap<String, Survey> journaled = new ConcurrentHashMap<>();
+
+    // Coalesces question mutations into batches when survey.write-pipeline.enabled=true
+    private final SurveyWritePipeline writePipeline;
+
+    public SurveyService() {
+        this(SurveyMutationJournal.disabled(), false, 1);
+    }
+
+    public SurveyService(SurveyMutationJournal journal, boolean writePipelineEnabled, int maxBatchSize) {
+        this(journal, writePipelineEnabled, maxBatchSize, SurveyHistory.Retention.DEFAULT.maxVersions(),
+                SurveyHistory.Retention.DEFAULT.maxAge());
+    }
+
+    @Autowired
+    public SurveyService(SurveyMutationJournal journal,
+            @Value("${survey.write-pipeline.enabled:false}") boolean writePipelineEnabled,
+            @Value("${survey.write-pipeline.max-batch-size:256}") int maxBatchSize,
+            @Value("${survey.history.max-versions:100}") int maxVersions,
+            @Value("${survey.history.max-age:0s}") Duration maxAge) {
+        this.journal = journal;
+        this.retention = new SurveyHistory.Retention(maxVersions, maxAge);
+        this.writePipeline = writePipelineEnabled ? new SurveyWritePipeline(this::commit, maxBatchSize) : null;
 
-    static {
         // Initialize Data for the Survey
         Question question1 = new Question("Question1", "What is the most popular programming language?", "JavaScript",
                 Arrays.asList("Java", "Python", "JavaScript", "C#"));
@@ -31,7 +87,21 @@ public class SurveyService {
 
         Survey survey = new Survey("Survey1", "My Favorite Survey", "Description of the Survey", questions);
 
-        surveys.add(survey);
+        // Journaled changes take precedence over the seed data
+        Map<String, Survey> initialSurveys = new LinkedHashMap<>();
+        initialSurveys.put(survey.getId(), survey);
+        journal.replay().forEach(replayed -> {
+            initialSurveys.put(replayed.getId(), replayed);
+            journaled.put(replayed.getId(), replayed);
+        });
+        publishSurveys(initialSurveys.values());
+    }
+
+    @PreDestroy
+    public void close() {
+        if (writePipeline != null) {
+            writePipeline.close();
+        }
     }
 
     /**
@@ -39,7 +109,89 @@ public class SurveyService {
      * @return a list of all surveys
      */
     public List<Survey> retrieveAllSurveys() {
-        return surveys;
+        StoreAccessEvent event = StoreAccessEvent.begin("list", null, 0);
+        List<Survey> all = new ArrayList<>(surveys.values());
+        event.complete();
+        return all;
+    }
+
+    /**
+     * Publishes surveys, replacing any existing survey with the same ID.
+     * Each survey is swapped in atomically, so concurrent readers see either
+     * the old or the new version, never a partial one.
+     * A survey with journaled edits keeps its journaled state, so catalog reloads and
+     * restarts do not overwrite changes made through the API.
+     *
+     * @param loadedSurveys the surveys to publish
+     */
+    public void publishSurveys(Collection<Survey> loadedSurveys) {
+        for (Survey loaded : loadedSurveys) {
+            Survey edited = journaled.get(loaded.getId());
+            Survey survey = withPersistentQuestions(edited != null ? edited : loaded);
+            synchronized (commitLock(survey.getId())) {
+                if (edited != null && surveys.containsKey(survey.getId())) {
+                    continue;
+                }
+                surveys.put(survey.getId(), survey);
+                historyOf(survey.getId()).record(survey, Instant.now());
+            }
+        }
+    }
+
+    /**
+     * Creates a new survey from a template. The clone shares the template's questions and
+     * is created in constant time regardless of their number; editing a question of the
+     * clone later replaces it in the clone only.
+     *
+     * @param templateId  the ID of the survey to clone
+     * @param newId       the ID of the new survey
+     * @param title       the title of the new survey, or null to keep the template's
+     * @param description the description of the new survey, or null to keep the template's
+     * @return the new survey, or null if the template is not found
+     * @throws IllegalStateException if a survey with the new ID already exists
+     */
+    public Survey cloneSurvey(String templateId, String newId, String title, String description) {
+        Survey template = retrieveSurveyById(templateId);
+        if (template == null) {
+            return null;
+        }
+
+        Survey clone = template.copy(newId, title != null ? title : template.getTitle(),
+                description != null ? description : template.getDescription());
+        StoreAccessEvent event = StoreAccessEvent.begin("clone", newId, 0);
+        try {
+            synchronized (commitLock(newId)) {
+                if (surveys.containsKey(newId)) {
+                    throw new IllegalStateException("Survey " + newId + " already exists");
+                }
+                publishDurably(clone);
+            }
+        } finally {
+            event.complete();
+        }
+        return clone;
+    }
+
+    /**
+     * Removes surveys from the catalog. Surveys with journaled edits are kept.
+     *
+     * @param surveyIds the IDs of the surveys to remove
+     * @return the IDs of the surveys that were removed
+     */
+    public List<String> removeSurveys(Collection<String> surveyIds) {
+        List<String> removed = new ArrayList<>();
+        for (String surveyId : surveyIds) {
+            synchronized (commitLock(surveyId)) {
+                if (journaled.containsKey(surveyId)) {
+                    continue;
+                }
+                if (surveys.remove(surveyId) != null) {
+                    removed.add(surveyId);
+                }
+                histories.remove(surveyId);
+            }
+        }
+        return removed;
     }
 
 
@@ -49,10 +201,48 @@ public class SurveyService {
      * @return the survey with the specified ID, or null if no survey is found
      */
     public Survey retrieveSurveyById(String surveyId) {
-        return surveys.stream().filter(survey -> survey.getId().equals(surveyId)).findFirst().orElse(null);
+        StoreAccessEvent event = StoreAccessEvent.begin("read", surveyId, 0);
+        Survey survey = surveyId == null ? null : surveys.get(surveyId);
+        event.complete();
+        return survey;
     }
 
 
+    /**
+     * Retrieves a retained version of a survey.
+     *
+     * @param surveyId the ID of the survey
+     * @param version  the version number
+     * @return the version, or null if the survey or version is not retained
+     */
+    public SurveyVersion retrieveSurveyVersion(String surveyId, long version) {
+        SurveyHistory history = histories.get(surveyId);
+        return history == null ? null : history.version(version, Instant.now());
+    }
+
+    /**
+     * Retrieves the version of a survey that was current at a point in time.
+     *
+     * @param surveyId the ID of the survey
+     * @param instant  the point in time
+     * @return the version, or null if the survey did not exist then or that version is not retained
+     */
+    public SurveyVersion retrieveSurveyAsOf(String surveyId, Instant instant) {
+        SurveyHistory history = histories.get(surveyId);
+        return history == null ? null : history.asOf(instant, Instant.now());
+    }
+
+    /**
+     * Retrieves all retained versions of a survey, oldest first.
+     *
+     * @param surveyId the ID of the survey
+     * @return the versions, or null if the survey is not found
+     */
+    public List<SurveyVersion> retrieveSurveyHistory(String surveyId) {
+        SurveyHistory history = histories.get(surveyId);
+        return history == null ? null : history.versions(Instant.now());
+    }
+
     /**
      * Retrieves all questions for a survey.
      * @param surveyId
@@ -80,8 +270,27 @@ public class SurveyService {
             return null;
         }
 
-        return survey.getQuestions().stream().filter(question -> question.getId().equals(questionId)).findFirst()
-                .orElse(null);
+        return survey.findQuestion(questionId);
+    }
+
+    /**
+     * Retrieves many questions, possibly of different surveys, in one call.
+     * Each survey is looked up once, so all questions of a survey come from the same version of it.
+     *
+     * @param references the survey and question IDs to look up
+     * @return the question for each reference, in the same order; null where the survey or question was not found
+     */
+    public List<Question> retrieveQuestions(List<QuestionReference> references) {
+        StoreAccessEvent event = StoreAccessEvent.begin("batchRead", null, references.size());
+        Map<String, Survey> snapshot = new HashMap<>();
+        List<Question> questions = new ArrayList<>(references.size());
+        for (QuestionReference reference : references) {
+            Survey survey = reference.surveyId() == null ? null
+                    : snapshot.computeIfAbsent(reference.surveyId(), surveys::get);
+            questions.add(survey == null ? null : survey.findQuestion(reference.questionId()));
+        }
+        event.complete();
+        return questions;
     }
 
     /**
@@ -92,11 +301,11 @@ public class SurveyService {
      * @return the ID of the newly created question
      */
     public String addNewSurveyQuestion(String surveyId, Question question) {
-        List<Question> allQuestions = retrieveAllQuestions(surveyId);
         question.setId(getRandomId());
-        if (allQuestions != null) {
-            allQuestions.add(question);
-        }
+        mutate(surveyId, questions -> {
+            questions.add(question);
+            return question.getId();
+        });
 
         return question.getId();
     }
@@ -120,13 +329,10 @@ public class SurveyService {
      *         otherwise returns null
      */
     public String deleteSurveyQuestion(String surveyId, String questionId) {
-        Survey survey = retrieveSurveyById(surveyId);
-        if (survey == null) {
-            return null;
-        }
-
-        boolean removed = survey.getQuestions().removeIf(question -> question.getId().equals(questionId));
-        return removed ? questionId : null;
+        return mutate(surveyId, questions -> {
+            boolean removed = questions.removeIf(question -> question.getId().equals(questionId));
+            return removed ? questionId : null;
+        });
     }
 
     /**
@@ -139,22 +345,150 @@ public class SurveyService {
      *         otherwise returns null
      */
     public String updateSurveyQuestion(String surveyId, String questionId, Question question) {
-        // Retrieve all questions for the given survey ID
-        List<Question> questions = retrieveAllQuestions(surveyId);
+        return mutate(surveyId, questions -> {
+            // Remove the question with the specified question ID
+            boolean removed = questions.removeIf(q -> q.getId().equalsIgnoreCase(questionId));
+
+            // If no question was removed, return null indicating the question was not found
+            if (!removed) {
+                return null;
+            }
+
+            // Add the updated question to the list
+            questions.add(question);
 
-        // Remove the question with the specified question ID
-        boolean removed = questions.removeIf(q -> q.getId().equalsIgnoreCase(questionId));
+            // Return the ID of the updated question
+            return questionId;
+        });
+    }
+
+    /**
+     * Patches a question in place: the question keeps its position in the survey and the
+     * patch is applied to the current version of the question as part of the commit.
+     *
+     * @param surveyId   the ID of the survey containing the question
+     * @param questionId the ID of the question to patch
+     * @param patch      computes the patched question from the current one; throws
+     *                   IllegalArgumentException if the patch cannot be applied
+     * @return the patched question, or null if the survey or question was not found
+     * @throws IllegalArgumentException if the patch cannot be applied; the survey is not changed
+     */
+    public Question patchSurveyQuestion(String surveyId, String questionId, UnaryOperator<Question> patch) {
+        AtomicReference<Question> patched = new AtomicReference<>();
 
-        // If no question was removed, return null indicating the question was not found
-        if (!removed) {
+        // A rejected patch fails only this mutation; other mutations of the batch still commit
+        String patchedId = mutate(surveyId, questions -> {
+            for (int i = 0; i < questions.size(); i++) {
+                if (questions.get(i).getId().equals(questionId)) {
+                    patched.set(patch.apply(questions.get(i)));
+                    questions.set(i, patched.get());
+                    return questionId;
+                }
+            }
             return null;
+        });
+
+        return patchedId == null ? null : patched.get();
+    }
+
+    // Apply a mutation directly, or through the write pipeline when it is enabled
+    private String mutate(String surveyId, QuestionMutation mutation) {
+        if (writePipeline == null) {
+            return commit(surveyId, List.of(mutation)).get(0).get();
         }
 
-        // Add the updated question to the list
-        questions.add(question);
+        // The commit runs on a writer thread, so the request's store time is the time it waits for it
+        long start = System.nanoTime();
+        try {
+            return writePipeline.submit(surveyId, mutation).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        } finally {
+            StoreAccessTimer.add(System.nanoTime() - start);
+        }
+    }
 
-        // Return the ID of the updated question
-        return questionId;
+    /**
+     * Applies a batch of mutations to one survey as a single commit: every mutation is
+     * applied to an editor over the current persistent question list, and the survey is
+     * republished with the result as a new version. Only the changed questions' paths are
+     * copied, the rest is shared with the previous version, which stays in the history.
+     * Readers keep seeing the previous version until the swap.
+     * When the journal is enabled the swap happens only after the new state is on disk.
+     * A mutation that throws is undone and reported in its outcome; the other mutations
+     * still commit.
+     *
+     * @param surveyId  the ID of the survey to change
+     * @param mutations the mutations to apply, in order
+     * @return the outcome of each mutation; all null results if the survey does not exist
+     */
+    List<SurveyWritePipeline.Outcome> commit(String surveyId, List<QuestionMutation> mutations) {
+        StoreAccessEvent event = StoreAccessEvent.begin("commit", surveyId, mutations.size());
+        try {
+            return commitLocked(surveyId, mutations);
+        } finally {
+            event.complete();
+        }
     }
 
+    private List<SurveyWritePipeline.Outcome> commitLocked(String surveyId, List<QuestionMutation> mutations) {
+        synchronized (commitLock(surveyId)) {
+            Survey current = surveys.get(surveyId);
+            if (current == null) {
+                return Collections.nCopies(mutations.size(), SurveyWritePipeline.Outcome.of(null));
+            }
+
+            PersistentList<Question> applied = PersistentList.copyOf(current.getQuestions());
+            List<SurveyWritePipeline.Outcome> outcomes = new ArrayList<>(mutations.size());
+            boolean changed = false;
+            for (QuestionMutation mutation : mutations) {
+                // Each mutation edits its own copy, so a failing one leaves no partial changes behind
+                PersistentList.Editor<Question> questions = applied.edit();
+                try {
+                    outcomes.add(SurveyWritePipeline.Outcome.of(mutation.apply(questions)));
+                } catch (RuntimeException e) {
+                    outcomes.add(SurveyWritePipeline.Outcome.failed(e));
+                    continue;
+                }
+                applied = questions.toPersistentList();
+                changed = true;
+            }
+
+            if (changed) {
+                publishDurably(current.withQuestions(applied));
+            }
+            return outcomes;
+        }
+    }
+
+    // Readers see a new state only once it is on disk; the caller holds the survey's commit lock.
+    // Commits to other surveys still share the same fsync, since each survey has its own lock.
+    private void publishDurably(Survey survey) {
+        journal.sync(journal.append(survey));
+        if (journal.isEnabled()) {
+            journaled.put(survey.getId(), survey);
+        }
+        surveys.put(survey.getId(), survey);
+        historyOf(survey.getId()).record(survey, Instant.now());
+    }
+
+    private Object commitLock(String surveyId) {
+        return commitLocks.computeIfAbsent(surveyId, id -> new Object());
+    }
+
+    private SurveyHistory historyOf(String surveyId) {
+        return histories.computeIfAbsent(surveyId, id -> new SurveyHistory(retention));
+    }
+
+    // Published surveys hold persistent question lists, so commits and clones can share them
+    private static Survey withPersistentQuestions(Survey survey) {
+        List<Question> questions = survey.getQuestions();
+        if (questions instanceof PersistentList<Question>) {
+            return survey;
+        }
+        return survey.withQuestions(PersistentList.copyOf(questions == null ? List.of() : questions));
+    }
 }
@@ -0,0 +1,13 @@
+package com.rvg.springboot.restapi.survey;
+
+import java.time.Instant;
+
+/**
+ * A survey as it was committed at a point in time.
+ *
+ * @param version     the version number, starting at 1 and increasing with every change
+ * @param committedAt when the version became the current one
+ * @param survey      the survey; shares unchanged questions with the other versions
+ */
+public record SurveyVersion(long version, Instant committedAt, Survey survey) {
+}
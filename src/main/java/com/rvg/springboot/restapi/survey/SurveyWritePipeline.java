@@ -0,0 +1,160 @@
+package com.rvg.springboot.restapi.survey;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Single-writer queue per survey that coalesces question mutations into batches.
+ *
+ * <p>Mutations submitted for a survey are queued, and at most one writer drains a survey's
+ * queue at a time. The writer takes everything that accumulated (up to the maximum batch
+ * size) and hands it to the {@link BatchCommitter} as one commit, so a burst of writes
+ * costs one copy of the question list and one journal flush instead of one per request.
+ * Each submitter's future completes once its batch is committed and durable. A mutation
+ * that fails only fails its own future; the rest of its batch still commits.</p>
+ *
+ * <p>No artificial delay is added: a batch is whatever arrived while the previous batch
+ * was committing, which keeps latency bounded by the duration of one commit.</p>
+ */
+class SurveyWritePipeline implements AutoCloseable {
+
+    /**
+     * Applies a batch of mutations to one survey and makes the result durable.
+     */
+    @FunctionalInterface
+    interface BatchCommitter {
+
+        /**
+         * @return the outcome of each mutation, in submission order
+         */
+        List<Outcome> commit(String surveyId, List<QuestionMutation> mutations);
+    }
+
+    /**
+     * The outcome of one mutation of a batch: its result, or the exception it failed with.
+     * A failed mutation leaves the questions as they were before it.
+     */
+    record Outcome(String result, RuntimeException failure) {
+
+        static Outcome of(String result) {
+            return new Outcome(result, null);
+        }
+
+        static Outcome failed(RuntimeException failure) {
+            return new Outcome(null, failure);
+        }
+
+        /**
+         * Returns the result, or throws the exception the mutation failed with.
+         */
+        String get() {
+            if (failure != null) {
+                throw failure;
+            }
+            return result;
+        }
+    }
+
+    private final BatchCommitter committer;
+    private final int maxBatchSize;
+    private final ExecutorService writers;
+    private final ConcurrentMap<String, SurveyQueue> queues = new ConcurrentHashMap<>();
+
+    SurveyWritePipeline(BatchCommitter committer, int maxBatchSize) {
+        this.committer = committer;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.writers = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("survey-writer-", 0).factory());
+    }
+
+    /**
+     * Queues a mutation for a survey.
+     *
+     * @return a future completed with the mutation result once its batch is durable
+     */
+    CompletableFuture<String> submit(String surveyId, QuestionMutation mutation) {
+        SurveyQueue queue = queues.computeIfAbsent(surveyId, SurveyQueue::new);
+        PendingMutation pending = new PendingMutation(mutation, new CompletableFuture<>());
+        queue.pending.add(pending);
+        schedule(queue);
+        return pending.result;
+    }
+
+    // Start a writer for the queue unless one is already draining it
+    private void schedule(SurveyQueue queue) {
+        if (queue.draining.compareAndSet(false, true)) {
+            writers.execute(() -> drain(queue));
+        }
+    }
+
+    private void drain(SurveyQueue queue) {
+        while (true) {
+            List<PendingMutation> batch = new ArrayList<>();
+            PendingMutation next;
+            while (batch.size() < maxBatchSize && (next = queue.pending.poll()) != null) {
+                batch.add(next);
+            }
+
+            if (batch.isEmpty()) {
+                queue.draining.set(false);
+                // A mutation may have been queued after the last poll but before the flag was cleared
+                if (queue.pending.isEmpty() || !queue.draining.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+
+            commit(queue.surveyId, batch);
+        }
+    }
+
+    private void commit(String surveyId, List<PendingMutation> batch) {
+        List<QuestionMutation> mutations = new ArrayList<>(batch.size());
+        for (PendingMutation pending : batch) {
+            mutations.add(pending.mutation);
+        }
+
+        try {
+            List<Outcome> outcomes = committer.commit(surveyId, mutations);
+            for (int i = 0; i < batch.size(); i++) {
+                Outcome outcome = outcomes.get(i);
+                if (outcome.failure() != null) {
+                    batch.get(i).result.completeExceptionally(outcome.failure());
+                } else {
+                    batch.get(i).result.complete(outcome.result());
+                }
+            }
+        } catch (RuntimeException | Error e) {
+            // The commit itself failed, e.g. the journal could not be written: nothing was published
+            for (PendingMutation pending : batch) {
+                pending.result.completeExceptionally(e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        writers.close();
+    }
+
+    private record PendingMutation(QuestionMutation mutation, CompletableFuture<String> result) {
+    }
+
+    private static final class SurveyQueue {
+
+        private final String surveyId;
+        private final Queue<PendingMutation> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private SurveyQueue(String surveyId) {
+            this.surveyId = surveyId;
+        }
+    }
+}
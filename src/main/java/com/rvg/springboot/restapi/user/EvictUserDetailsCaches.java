@@ -0,0 +1,22 @@
+package com.rvg.springboot.restapi.user;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.springframework.cache.annotation.CacheEvict;
+
+/**
+ * Clears all cached user lookups after the annotated repository write completes.
+ *
+ * @see UserDetailsCacheConfiguration
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@CacheEvict(cacheNames = { UserDetailsCacheConfiguration.USER_ACCOUNTS_CACHE,
+        UserDetailsCacheConfiguration.USER_PAGES_CACHE }, allEntries = true)
+@interface EvictUserDetailsCaches {
+}
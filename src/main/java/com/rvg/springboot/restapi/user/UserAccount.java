@@ -0,0 +1,15 @@
+package com.rvg.springboot.restapi.user;
+
+/**
+ * Immutable copy of the account fields needed to authenticate a user.
+ *
+ * <p>Loaded as a query projection, so no entity is attached to a persistence context and the
+ * cached instance can be shared between requests.</p>
+ *
+ * @param id       the user ID
+ * @param name     the user name
+ * @param role     the stored role, for example {@code Admin}
+ * @param password the encoded password, or null if the user cannot log in
+ */
+public record UserAccount(Long id, String name, String role, String password) {
+}
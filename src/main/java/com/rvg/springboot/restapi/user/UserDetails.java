@@ -11,6 +11,9 @@
  *   <li>@Entity - Specifies that the class is an entity and is mapped to a database table.</li>
  *   <li>@Id - Specifies the primary key of an entity.</li>
  *   <li>@GeneratedValue - Provides for the specification of generation strategies for the values of primary keys.</li>
+ *   <li>@Table - Declares indexes on role and name, so role lookups and logins do not scan the whole table.
+ *       The name index is unique: logins look users up by name, so names must not repeat.</li>
+ *   <li>@JsonProperty(access = WRITE_ONLY) - The password hash can be written but is never serialized.</li>
  * </ul>
  * 
  * <p>Fields:</p>
@@ -18,12 +21,14 @@
  *   <li>id - The unique identifier for the user (primary key).</li>
  *   <li>name - The name of the user.</li>
  *   <li>role - The role of the user.</li>
+ *   <li>password - The encoded (BCrypt) password used for authentication, or null if the user cannot log in.</li>
  * </ul>
  * 
  * <p>Constructors:</p>
  * <ul>
  *   <li>UserDetails() - Default constructor.</li>
  *   <li>UserDetails(String name, String role) - Parameterized constructor to initialize name and role.</li>
+ *   <li>UserDetails(String name, String role, String password) - Also sets the encoded password.</li>
  * </ul>
  * 
  * <p>Methods:</p>
@@ -31,16 +36,25 @@
  *   <li>getId() - Returns the user ID.</li>
  *   <li>getName() - Returns the user name.</li>
  *   <li>getRole() - Returns the user role.</li>
+ *   <li>getPassword() / setPassword(String) - Access the encoded password.</li>
  *   <li>toString() - Returns a string representation of the user details.</li>
  * </ul>
  */
 package com.rvg.springboot.restapi.user;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_user_details_role", columnList = "role"),
+        @Index(name = "idx_user_details_name", columnList = "name", unique = true)
+})
 public class UserDetails {
 
     public UserDetails() {
@@ -52,6 +66,11 @@ public class UserDetails {
         this.role = role;
     }
 
+    public UserDetails(String name, String role, String password) {
+        this(name, role);
+        this.password = password;
+    }
+
     @Id
     @GeneratedValue
     private Long id;
@@ -59,6 +78,9 @@ public class UserDetails {
     private String name;
     private String role;
 
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    private String password;
+
     public Long getId() {
         return id;
     }
@@ -71,6 +93,14 @@ public class UserDetails {
         return role;
     }
 
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
     @Override
     public String toString() {
         return String.format("UserDetails [id= %s, name= %s, role= %s]", id, name, role);
@@ -0,0 +1,27 @@
+/**
+ * Enables Spring's cache abstraction for user lookups.
+ *
+ * <p>The caches are backed by Caffeine and bounded through the
+ * {@code spring.cache.caffeine.spec} property. {@link UserDetailsRepository}
+ * caches the account lookup of the authentication path and the pages of
+ * {@code GET /users} as immutable records, never as entities, and evicts all caches
+ * on every write, so a stale page or account is never served after a change made
+ * through the repository.</p>
+ *
+ * @author rvega
+ */
+package com.rvg.springboot.restapi.user;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class UserDetailsCacheConfiguration {
+
+    // Cache holding the accounts loaded for authentication, keyed by user name
+    public static final String USER_ACCOUNTS_CACHE = "userAccounts";
+
+    // Cache holding the keyset pages of GET /users, keyed by start ID and page size
+    public static final String USER_PAGES_CACHE = "userPages";
+}
@@ -3,11 +3,13 @@
  * It is marked as a Spring Component to be detected during component scanning.
  * 
  * The UserDetailsCommandLineRunner class is responsible for:
- * - Saving initial user details to the UserDetailsRepository.
- * - Logging all user details after saving them.
+ * - Saving initial user details to the UserDetailsRepository, with BCrypt-encoded passwords
+ *   for the accounts that can log in. Seeding is skipped when users already exist.
+ * - Logging all user details after saving them (debug level only, to keep startup fast).
  * 
  * Dependencies:
  * - UserDetailsRepository: Autowired to interact with the database for saving and retrieving user details.
+ * - PasswordEncoder: Autowired to encode the initial passwords.
  * 
  * Methods:
  * - run(String... args): Overrides the run method from CommandLineRunner to execute the code at application startup.
@@ -18,9 +20,10 @@
  * 
  * Example:
  * When the application starts, the following users will be saved:
- * - UserDetails("user", "Admin")
- * - UserDetails("user1", "Admin")
- * - UserDetails("user2", "User")
+ * - UserDetails("admin", "Admin", encoded "admin")
+ * - UserDetails("rvg", "Admin", encoded "asdf")
+ * - UserDetails("user1", "Admin") - cannot log in
+ * - UserDetails("user2", "User") - cannot log in
  * 
  * The log will display all users in the repository.
  */
@@ -31,6 +34,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
 
@@ -42,14 +46,24 @@ public class UserDetailsCommandLineRunner implements CommandLineRunner {
     @Autowired
     private UserDetailsRepository repository;
 
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
     @Override
     public void run(String... args) throws Exception {
-        repository.save(new UserDetails("rvg", "Admin"));
+        if (repository.count() > 0) {
+            return;
+        }
+
+        repository.save(new UserDetails("admin", "Admin", passwordEncoder.encode("admin")));
+        repository.save(new UserDetails("rvg", "Admin", passwordEncoder.encode("asdf")));
         repository.save(new UserDetails("user1", "Admin"));
         repository.save(new UserDetails("user2", "User"));
 
-        log.info("All users -> {}", repository.findAll());
-        log.info("Admin users -> {}", repository.findByRole("Admin"));
+        if (log.isDebugEnabled()) {
+            log.debug("All users -> {}", repository.findAll());
+            log.debug("Admin users -> {}", repository.findByRole("Admin"));
+        }
     }
 
 }
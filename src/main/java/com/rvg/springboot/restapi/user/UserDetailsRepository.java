@@ -1,10 +1,93 @@
 package com.rvg.springboot.restapi.user;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.rest.core.annotation.RestResource;
 
+import jakarta.persistence.QueryHint;
+
+// Lookups of the authentication and /users paths are cached as immutable records
+// (see UserDetailsCacheConfiguration); every write evicts the caches
 public interface UserDetailsRepository extends JpaRepository<UserDetails, Long> {
 
     List<UserDetails> findByRole(String role);
+
+    Optional<UserDetails> findByName(String name);
+
+    // Account checked on every authenticated request
+    @RestResource(exported = false)
+    @Cacheable(UserDetailsCacheConfiguration.USER_ACCOUNTS_CACHE)
+    Optional<UserAccount> findAccountByName(String name);
+
+    // Stored password hash; read from the table even when the managed entity has unsaved changes
+    @RestResource(exported = false)
+    @Query("select u.password from UserDetails u where u.id = ?1")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    String findPasswordById(Long id);
+
+    // Keyset page: the next users after the given ID, served by the primary key index at any depth
+    @RestResource(exported = false)
+    @Cacheable(UserDetailsCacheConfiguration.USER_PAGES_CACHE)
+    List<UserEntry> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Streams all users with a role; must be consumed inside a transaction
+    @RestResource(exported = false)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<UserSummary> streamByRoleOrderByIdAsc(String role);
+
+    @Override
+    @EvictUserDetailsCaches
+    <S extends UserDetails> S save(S entity);
+
+    @Override
+    @EvictUserDetailsCaches
+    <S extends UserDetails> List<S> saveAll(Iterable<S> entities);
+
+    @Override
+    @EvictUserDetailsCaches
+    <S extends UserDetails> S saveAndFlush(S entity);
+
+    @Override
+    @EvictUserDetailsCaches
+    <S extends UserDetails> List<S> saveAllAndFlush(Iterable<S> entities);
+
+    @Override
+    @EvictUserDetailsCaches
+    void delete(UserDetails entity);
+
+    @Override
+    @EvictUserDetailsCaches
+    void deleteById(Long id);
+
+    @Override
+    @EvictUserDetailsCaches
+    void deleteAllById(Iterable<? extends Long> ids);
+
+    @Override
+    @EvictUserDetailsCaches
+    void deleteAll(Iterable<? extends UserDetails> entities);
+
+    @Override
+    @EvictUserDetailsCaches
+    void deleteAll();
+
+    @Override
+    @EvictUserDetailsCaches
+    void deleteAllInBatch(Iterable<UserDetails> entities);
+
+    @Override
+    @EvictUserDetailsCaches
+    void deleteAllByIdInBatch(Iterable<Long> ids);
+
+    @Override
+    @EvictUserDetailsCaches
+    void deleteAllInBatch();
 }
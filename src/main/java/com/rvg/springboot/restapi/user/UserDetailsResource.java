@@ -0,0 +1,106 @@
+/**
+ * REST controller for reading large user tables efficiently.
+ *
+ * <p>Unlike the offset-based {@code /userDetailses} endpoints exported by Spring Data REST,
+ * these endpoints cost the same at any depth:</p>
+ * <ul>
+ *   <li>GET /users?after={id}&amp;size={size} - Keyset (seek) pagination on the user ID. Pass the
+ *       {@code next} value of a page as {@code after} to get the following page.</li>
+ *   <li>GET /users/export?role={role} - Streams every user with the role as NDJSON, one
+ *       user per line, without loading the result set into memory.</li>
+ * </ul>
+ *
+ * <p>Both endpoints return the ID, name and role of each user. Pages are cached until the
+ * next change to the users.</p>
+ *
+ * @author rvega
+ */
+package com.rvg.springboot.restapi.user;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+
+@RestController
+@RequestMapping("/users")
+public class UserDetailsResource {
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+
+    // Flush the export to the client every this many users
+    private static final int EXPORT_FLUSH_INTERVAL = 1000;
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    /**
+     * A page of users.
+     *
+     * @param users the users of the page, ordered by ID
+     * @param next  the value to pass as {@code after} for the next page, or null on the last page
+     */
+    public record UserPage(List<UserEntry> users, Long next) {
+    }
+
+    private final UserDetailsRepository repository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectWriter lineWriter;
+
+    public UserDetailsResource(UserDetailsRepository repository, PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper) {
+        this.repository = repository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.lineWriter = objectMapper.writerFor(UserSummary.class).withRootValueSeparator("\n");
+    }
+
+    // Mapping HTTP GET requests to the specified URL pattern
+    // The method retrieves the page of users following the given ID
+    @RequestMapping(method = RequestMethod.GET)
+    public UserPage retrieveUsers(@RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<UserEntry> users = repository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(pageSize));
+
+        Long next = users.size() < pageSize ? null : users.get(users.size() - 1).id();
+        return new UserPage(users, next);
+    }
+
+    // Mapping HTTP GET requests to the specified URL pattern
+    // The method streams all users with the given role as NDJSON
+    @RequestMapping(value = "/export", method = RequestMethod.GET)
+    public ResponseEntity<StreamingResponseBody> exportUsersByRole(@RequestParam String role) {
+        StreamingResponseBody body = output -> readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<UserSummary> users = repository.streamByRoleOrderByIdAsc(role);
+                    SequenceWriter sequence = lineWriter.writeValues(output)) {
+                int written = 0;
+                for (UserSummary user : (Iterable<UserSummary>) users::iterator) {
+                    sequence.write(user);
+                    if (++written % EXPORT_FLUSH_INTERVAL == 0) {
+                        sequence.flush();
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+}
@@ -0,0 +1,13 @@
+package com.rvg.springboot.restapi.user;
+
+/**
+ * Immutable ID, name and role of a user, as listed by {@code GET /users}.
+ *
+ * <p>Loaded as a query projection, so pages can be cached and shared between requests.</p>
+ *
+ * @param id   the user ID
+ * @param name the user name
+ * @param role the stored role
+ */
+public record UserEntry(Long id, String name, String role) {
+}
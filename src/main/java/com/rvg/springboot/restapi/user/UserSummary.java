@@ -0,0 +1,23 @@
+package com.rvg.springboot.restapi.user;
+
+import org.springframework.data.rest.core.config.Projection;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * Lightweight view of a {@link UserDetails}: ID, name and role only.
+ *
+ * <p>Used as a query projection, so only these three columns are selected and no entity is
+ * loaded into the persistence context. Also available on the Spring Data REST endpoints as
+ * {@code /userDetailses?projection=summary}.</p>
+ */
+@Projection(name = "summary", types = UserDetails.class)
+@JsonPropertyOrder({ "id", "name", "role" })
+public interface UserSummary {
+
+    Long getId();
+
+    String getName();
+
+    String getRole();
+}
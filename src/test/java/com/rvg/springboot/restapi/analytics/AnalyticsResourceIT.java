@@ -0,0 +1,95 @@
+/**
+ * Integration test for the AnalyticsResource REST API.
+ *
+ * Submits responses with answer times to the seeded survey and checks the statistics, the
+ * exported sketch and merging it back in.
+ */
+package com.rvg.springboot.restapi.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.UUID;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+public class AnalyticsResourceIT {
+
+    @Autowired
+    private TestRestTemplate template;
+
+    @SuppressWarnings("null")
+    @Test
+    void submissions_updateStatsAndSketchesMerge() throws JSONException {
+        JSONObject before = stats();
+        String prefix = UUID.randomUUID().toString().substring(0, 8);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(204, submit(prefix + "-" + (i % 5), 1_000 * (i + 1)).getStatusCode().value());
+        }
+
+        JSONObject after = stats();
+        assertEquals(before.getLong("submissions") + 10, after.getLong("submissions"));
+        long distinct = after.getLong("distinctRespondents") - before.getLong("distinctRespondents");
+        assertTrue(distinct >= 4 && distinct <= 6, "distinct respondents " + distinct);
+        JSONObject question1 = after.getJSONObject("answerTimes").getJSONObject("Question1");
+        assertEquals(10, question1.getLong("answers"));
+        assertEquals(5_000, question1.getDouble("p50"), 5_000 * QuantileSketch.RELATIVE_ACCURACY);
+
+        String sketch = template.withBasicAuth("admin", "admin")
+                .getForEntity("/surveys/Survey1/stats/sketch", String.class).getBody();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        ResponseEntity<String> merged = template.withBasicAuth("admin", "admin")
+                .postForEntity("/surveys/Survey1/stats/merge", new HttpEntity<>("[" + sketch + "]", headers),
+                        String.class);
+        assertEquals(200, merged.getStatusCode().value());
+        JSONObject mergedStats = new JSONObject(merged.getBody());
+        // Merging a node's sketch with itself doubles the counts but not the distinct respondents
+        assertEquals(2 * after.getLong("submissions"), mergedStats.getLong("submissions"));
+        assertEquals(after.getLong("distinctRespondents"), mergedStats.getLong("distinctRespondents"));
+
+        ResponseEntity<String> otherSurvey = template.withBasicAuth("admin", "admin")
+                .postForEntity("/surveys/Survey1/stats/merge",
+                        new HttpEntity<>("[" + new JSONObject(sketch).put("surveyId", "Other") + "]", headers),
+                        String.class);
+        assertEquals(400, otherSurvey.getStatusCode().value());
+    }
+
+    @Test
+    void submission_withAnswerTimeOfUnansweredQuestion_isRejected() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        String body = "{\"respondentId\": \"r\", \"answers\": {\"Question1\": 2}, \"answerTimes\": {\"Question3\": 10}}";
+
+        ResponseEntity<String> response = template.withBasicAuth("admin", "admin")
+                .postForEntity("/surveys/Survey1/responses", new HttpEntity<>(body, headers), String.class);
+        assertEquals(400, response.getStatusCode().value());
+    }
+
+    private JSONObject stats() throws JSONException {
+        ResponseEntity<String> response = template.withBasicAuth("admin", "admin")
+                .getForEntity("/surveys/Survey1/stats", String.class);
+        assertEquals(200, response.getStatusCode().value());
+        return new JSONObject(response.getBody());
+    }
+
+    private ResponseEntity<String> submit(String respondentId, long millis) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        String body = "{\"respondentId\": \"" + respondentId + "\", \"answers\": {\"Question1\": 2},"
+                + " \"answerTimes\": {\"Question1\": " + millis + "}}";
+        return template.withBasicAuth("admin", "admin")
+                .postForEntity("/surveys/Survey1/responses", new HttpEntity<>(body, headers), String.class);
+    }
+}
@@ -0,0 +1,54 @@
+package com.rvg.springboot.restapi.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+// Test distinct count estimates against the expected HyperLogLog error, alone and merged
+public class HyperLogLogTest {
+
+    @Test
+    void estimate_isExactForSmallCardinalities() {
+        HyperLogLog counter = new HyperLogLog(12);
+        for (int i = 0; i < 100; i++) {
+            counter.add(HyperLogLog.hash("respondent-" + i));
+            counter.add(HyperLogLog.hash("respondent-" + i));
+        }
+
+        assertEquals(100, counter.estimate(), 2);
+    }
+
+    @Test
+    void estimate_isWithinErrorBoundForLargeCardinalities() {
+        HyperLogLog counter = new HyperLogLog(12);
+        for (int i = 0; i < 1_000_000; i++) {
+            counter.add(HyperLogLog.hash("respondent-" + i));
+        }
+
+        // Standard error is 1.04 / sqrt(4096), about 1.6%; allow three of them
+        long estimate = counter.estimate();
+        assertTrue(Math.abs(estimate - 1_000_000) < 50_000, "estimate " + estimate);
+    }
+
+    @Test
+    void merge_estimatesTheUnion() {
+        HyperLogLog first = new HyperLogLog(12);
+        HyperLogLog second = new HyperLogLog(12);
+        for (int i = 0; i < 30_000; i++) {
+            first.add(HyperLogLog.hash("respondent-" + i));
+            second.add(HyperLogLog.hash("respondent-" + (i + 20_000)));
+        }
+
+        first.merge(HyperLogLog.of(12, second.toBytes()));
+
+        long estimate = first.estimate();
+        assertTrue(Math.abs(estimate - 50_000) < 2_500, "estimate " + estimate);
+    }
+
+    @Test
+    void merge_rejectsDifferentPrecision() {
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(12).merge(new HyperLogLog(10)));
+    }
+}
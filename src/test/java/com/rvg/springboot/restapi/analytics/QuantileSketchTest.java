@@ -0,0 +1,57 @@
+package com.rvg.springboot.restapi.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+// Test that quantiles stay within the relative accuracy, alone and merged
+public class QuantileSketchTest {
+
+    @Test
+    void quantile_isWithinRelativeAccuracy() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (int millis = 1; millis <= 10_000; millis++) {
+            sketch.add(millis);
+        }
+
+        assertEquals(10_000, sketch.count());
+        assertEquals(5_000, sketch.quantile(0.5), 5_000 * QuantileSketch.RELATIVE_ACCURACY);
+        assertEquals(9_000, sketch.quantile(0.9), 9_000 * QuantileSketch.RELATIVE_ACCURACY);
+        assertEquals(9_900, sketch.quantile(0.99), 9_900 * QuantileSketch.RELATIVE_ACCURACY);
+    }
+
+    @Test
+    void quantile_ofEmptySketchIsNull() {
+        assertNull(new QuantileSketch().quantile(0.5));
+    }
+
+    @Test
+    void quantile_countsValuesBelowOneAsZero() {
+        QuantileSketch sketch = new QuantileSketch();
+        sketch.add(0);
+        sketch.add(0);
+        sketch.add(100);
+
+        assertEquals(0.0, sketch.quantile(0.5));
+        assertEquals(100, sketch.quantile(1), 100 * QuantileSketch.RELATIVE_ACCURACY);
+    }
+
+    @Test
+    void merge_equalsSketchOfAllValues() {
+        QuantileSketch fast = new QuantileSketch();
+        QuantileSketch slow = new QuantileSketch();
+        for (int i = 0; i < 900; i++) {
+            fast.add(100);
+        }
+        for (int i = 0; i < 100; i++) {
+            slow.add(60_000);
+        }
+
+        fast.merge(slow.zeroCount(), slow.buckets());
+
+        assertEquals(1_000, fast.count());
+        assertEquals(100, fast.quantile(0.5), 100 * QuantileSketch.RELATIVE_ACCURACY);
+        assertEquals(60_000, fast.quantile(0.95), 60_000 * QuantileSketch.RELATIVE_ACCURACY);
+    }
+}
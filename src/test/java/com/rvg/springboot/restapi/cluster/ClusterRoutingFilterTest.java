@@ -0,0 +1,303 @@
+package com.rvg.springboot.restapi.cluster;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.sun.net.httpserver.HttpServer;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Test the ClusterRoutingFilter against a second node played by a local HTTP server
+public class ClusterRoutingFilterTest {
+
+    private static final String SELF = "http://self.invalid";
+    private static final String TOKEN = "secret";
+    private static final int MAX_ENTRY_BYTES = 1024;
+
+    /**
+     * A request received by the peer node.
+     */
+    record PeerRequest(String method, String path, String forwardedBy, String token) {
+    }
+
+    private final List<PeerRequest> peerRequests = new CopyOnWriteArrayList<>();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private HttpServer peerServer;
+    private String peer;
+    private ClusterMembership membership;
+    private ClusterRoutingFilter filter;
+
+    private String localId;
+    private String remoteId;
+
+    @BeforeEach
+    void startPeer() throws IOException {
+        peerServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        peerServer.createContext("/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            byte[] requestBody = exchange.getRequestBody().readAllBytes();
+            peerRequests.add(new PeerRequest(exchange.getRequestMethod(), path,
+                    exchange.getRequestHeaders().getFirst(ClusterRoutingFilter.FORWARDED_HEADER),
+                    exchange.getRequestHeaders().getFirst(ClusterRoutingFilter.TOKEN_HEADER)));
+
+            // The peer lists its own survey plus a stale copy of one it does not own
+            String body = path.equals("/questions:batchGet") ? batchResults(requestBody, "peer")
+                    : path.equals("/surveys")
+                    ? "[{\"id\":\"" + localId + "\",\"title\":\"stale\"},{\"id\":\"" + remoteId + "\",\"title\":\"peer\"}]"
+                    : path.endsWith("/export") ? "respondentId,timestamp\n" + "alice,1000\n".repeat(peerRequests.size())
+                    : path.endsWith("/versions") ? "[\"" + "v".repeat(2 * MAX_ENTRY_BYTES) + "\"]"
+                    : "{\"id\":\"" + remoteId + "\",\"version\":" + peerRequests.size() + "}";
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", path.endsWith("/export") ? "text/csv" : "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            exchange.getResponseBody().write(bytes);
+            exchange.close();
+        });
+        peerServer.start();
+
+        peer = "http://localhost:" + peerServer.getAddress().getPort();
+        membership = new ClusterMembership(SELF, SELF + "," + peer, 128, TOKEN);
+        filter = new ClusterRoutingFilter(membership, new RemoteSurveyCache(DataSize.ofMegabytes(1),
+                DataSize.ofBytes(MAX_ENTRY_BYTES), Duration.ofMinutes(1)), objectMapper);
+        localId = idOwnedBy(SELF);
+        remoteId = idOwnedBy(peer);
+    }
+
+    @AfterEach
+    void stopPeer() {
+        peerServer.stop(0);
+    }
+
+    @Test
+    void readOfRemoteSurvey_isForwardedOnceThenCached() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse first = filter(request("GET", "/surveys/" + remoteId), chain);
+        MockHttpServletResponse second = filter(request("GET", "/surveys/" + remoteId), new MockFilterChain());
+
+        assertNull(chain.getRequest());
+        assertEquals(200, first.getStatus());
+        assertEquals(first.getContentAsString(), second.getContentAsString());
+        assertEquals(List.of(new PeerRequest("GET", "/surveys/" + remoteId, SELF, TOKEN)), peerRequests);
+    }
+
+    @Test
+    void writeOfRemoteSurvey_isForwardedAndInvalidatesCache() throws Exception {
+        filter(request("GET", "/surveys/" + remoteId), new MockFilterChain());
+        filter(request("POST", "/surveys/" + remoteId + "/questions"), new MockFilterChain());
+        filter(request("GET", "/surveys/" + remoteId), new MockFilterChain());
+
+        assertEquals(List.of("GET", "POST", "GET"), peerRequests.stream().map(PeerRequest::method).toList());
+    }
+
+    @Test
+    void writeOfLocalSurvey_isServedLocallyAndBroadcastsInvalidation() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        filter(request("POST", "/surveys/" + localId + "/questions"), chain);
+
+        assertNotNull(chain.getRequest());
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (peerRequests.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(List.of(new PeerRequest("POST", "/cluster/invalidations/" + localId, null, TOKEN)),
+                peerRequests);
+    }
+
+    @Test
+    void exportOfRemoteSurvey_isStreamedAndNeverCached() throws Exception {
+        MockHttpServletResponse first = filter(request("GET", "/surveys/" + remoteId + "/responses/export"),
+                new MockFilterChain());
+        MockHttpServletResponse second = filter(request("GET", "/surveys/" + remoteId + "/responses/export"),
+                new MockFilterChain());
+
+        assertEquals("respondentId,timestamp\nalice,1000\n", first.getContentAsString());
+        assertEquals("respondentId,timestamp\nalice,1000\nalice,1000\n", second.getContentAsString());
+        assertEquals(2, peerRequests.size());
+    }
+
+    @Test
+    void largeReadOfRemoteSurvey_isNotCached() throws Exception {
+        MockHttpServletResponse first = filter(request("GET", "/surveys/" + remoteId + "/versions"),
+                new MockFilterChain());
+        filter(request("GET", "/surveys/" + remoteId + "/versions"), new MockFilterChain());
+
+        assertEquals(2 * MAX_ENTRY_BYTES + 4, first.getContentAsByteArray().length);
+        assertEquals(2, peerRequests.size());
+    }
+
+    @Test
+    void responseSubmission_doesNotBroadcastInvalidation() throws Exception {
+        filter(request("POST", "/surveys/" + localId + "/responses"), new MockFilterChain());
+        filter(request("POST", "/surveys/" + localId + "/questions"), new MockFilterChain());
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (peerRequests.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        Thread.sleep(200);
+        assertEquals(List.of(new PeerRequest("POST", "/cluster/invalidations/" + localId, null, TOKEN)),
+                peerRequests);
+    }
+
+    @Test
+    void forwardedHeader_isTrustedOnlyWithClusterToken() throws Exception {
+        MockHttpServletRequest spoofed = request("GET", "/surveys/" + remoteId);
+        spoofed.addHeader(ClusterRoutingFilter.FORWARDED_HEADER, "http://attacker.invalid");
+        spoofed.addHeader(ClusterRoutingFilter.TOKEN_HEADER, "");
+        MockFilterChain spoofedChain = new MockFilterChain();
+        filter(spoofed, spoofedChain);
+
+        // Routed to the owner like any client request, without the client's headers
+        assertNull(spoofedChain.getRequest());
+        assertEquals(List.of(new PeerRequest("GET", "/surveys/" + remoteId, SELF, TOKEN)), peerRequests);
+
+        MockHttpServletRequest fromPeer = request("GET", "/surveys/" + remoteId);
+        fromPeer.addHeader(ClusterRoutingFilter.FORWARDED_HEADER, peer);
+        fromPeer.addHeader(ClusterRoutingFilter.TOKEN_HEADER, TOKEN);
+        MockFilterChain peerChain = new MockFilterChain();
+        filter(fromPeer, peerChain);
+
+        assertNotNull(peerChain.getRequest());
+        assertEquals(1, peerRequests.size());
+    }
+
+    @Test
+    void surveyList_mergesSurveysOwnedByEachNode() throws Exception {
+        String localList = "[{\"id\":\"" + localId + "\",\"title\":\"local\"},{\"id\":\"" + remoteId
+                + "\",\"title\":\"stale\"}]";
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                response.setContentType("application/json");
+                response.getWriter().write(localList);
+            }
+        });
+
+        MockHttpServletResponse response = filter(request("GET", "/surveys"), chain);
+
+        assertEquals(200, response.getStatus());
+        JsonNode surveys = objectMapper.readTree(response.getContentAsString());
+        assertEquals(2, surveys.size());
+        for (JsonNode survey : surveys) {
+            assertEquals(survey.get("id").asText().equals(localId) ? "local" : "peer", survey.get("title").asText());
+        }
+        assertTrue(surveys.get(0).get("id").asText().compareTo(surveys.get(1).get("id").asText()) < 0);
+        assertEquals(List.of(new PeerRequest("GET", "/surveys", SELF, TOKEN)), peerRequests);
+    }
+
+    @Test
+    void batchGet_asksEachOwnerForItsReferencesAndKeepsRequestOrder() throws Exception {
+        List<byte[]> localBatches = new CopyOnWriteArrayList<>();
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                byte[] batch = request.getInputStream().readAllBytes();
+                localBatches.add(batch);
+                response.setContentType("application/json");
+                response.getWriter().write(batchResults(batch, "local"));
+            }
+        });
+        MockHttpServletRequest request = request("POST", "/questions:batchGet");
+        request.setContentType("application/json");
+        request.setContent(("[" + reference(remoteId, "Q1") + "," + reference(localId, "Q2") + ","
+                + reference(remoteId, "Q3") + "]").getBytes(StandardCharsets.UTF_8));
+
+        MockHttpServletResponse response = filter(request, chain);
+
+        assertEquals(200, response.getStatus());
+        List<String> answered = new ArrayList<>();
+        for (JsonNode result : objectMapper.readTree(response.getContentAsString())) {
+            answered.add(result.get("questionId").asText() + " from " + result.get("node").asText());
+        }
+        assertEquals(List.of("Q1 from peer", "Q2 from local", "Q3 from peer"), answered);
+        assertEquals(1, localBatches.size());
+        assertEquals("[" + reference(localId, "Q2") + "]", new String(localBatches.get(0), StandardCharsets.UTF_8));
+        assertEquals(List.of(new PeerRequest("POST", "/questions:batchGet", SELF, TOKEN)), peerRequests);
+    }
+
+    @Test
+    void batchGetOfLocalSurveys_isServedLocally() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletRequest request = request("POST", "/questions:batchGet");
+        request.setContent(("[" + reference(localId, "Q1") + "]").getBytes(StandardCharsets.UTF_8));
+
+        filter(request, chain);
+
+        assertNotNull(chain.getRequest());
+        assertTrue(peerRequests.isEmpty());
+    }
+
+    @Test
+    void isValidToken_rejectsEmptyTokens() {
+        assertFalse(membership.isValidToken(""));
+        assertFalse(membership.isValidToken(null));
+        assertTrue(membership.isValidToken(TOKEN));
+        assertFalse(new ClusterMembership(SELF, SELF, 128, "").isValidToken(""));
+    }
+
+    private MockHttpServletResponse filter(MockHttpServletRequest request, MockFilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String method, String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.addHeader("Authorization", "Basic YWRtaW46YWRtaW4=");
+        return request;
+    }
+
+    private static String reference(String surveyId, String questionId) {
+        return "{\"surveyId\":\"" + surveyId + "\",\"questionId\":\"" + questionId + "\"}";
+    }
+
+    // One result per reference, tagged with the node that answered it
+    private String batchResults(byte[] references, String node) throws IOException {
+        ArrayNode results = objectMapper.createArrayNode();
+        for (JsonNode reference : objectMapper.readTree(references)) {
+            results.addObject()
+                    .put("surveyId", reference.get("surveyId").asText())
+                    .put("questionId", reference.get("questionId").asText())
+                    .put("found", true)
+                    .put("node", node);
+        }
+        return objectMapper.writeValueAsString(results);
+    }
+
+    private String idOwnedBy(String node) {
+        for (int i = 1;; i++) {
+            if (membership.ownerOf("Survey" + i).equals(node)) {
+                return "Survey" + i;
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.rvg.springboot.restapi.cluster;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+// Test that the ring spreads surveys evenly and only moves a small share of them when a node joins
+public class ConsistentHashRingTest {
+
+    private static final List<String> NODES = List.of("http://localhost:8080", "http://localhost:8081",
+            "http://localhost:8082");
+
+    @Test
+    void nodeFor_spreadsKeysAcrossAllNodes() {
+        ConsistentHashRing ring = new ConsistentHashRing(NODES, 128);
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 30_000; i++) {
+            counts.merge(ring.nodeFor("Survey" + i), 1, Integer::sum);
+        }
+
+        assertEquals(3, counts.size());
+        // Each node should get roughly a third of the keys
+        counts.values().forEach(count -> assertTrue(count > 7_000 && count < 13_000, "Unbalanced ring: " + counts));
+    }
+
+    @Test
+    void nodeFor_movesFewKeysWhenANodeJoins() {
+        ConsistentHashRing before = new ConsistentHashRing(NODES, 128);
+        ConsistentHashRing after = new ConsistentHashRing(List.of("http://localhost:8080", "http://localhost:8081",
+                "http://localhost:8082", "http://localhost:8083"), 128);
+
+        int moved = 0;
+        for (int i = 0; i < 10_000; i++) {
+            String key = "Survey" + i;
+            String newOwner = after.nodeFor(key);
+            if (!newOwner.equals(before.nodeFor(key))) {
+                // Keys only ever move to the new node
+                assertEquals("http://localhost:8083", newOwner);
+                moved++;
+            }
+        }
+
+        assertTrue(moved < 4_000, "Too many keys moved: " + moved);
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * Integration test for the LeaderboardResource REST API.
+ *
+ * Submits responses to the seeded survey through /surveys/{surveyId}/responses and checks
+ * that the leaderboard and ranks reflect the scores.
+ */
+package com.rvg.springboot.restapi.leaderboard;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.UUID;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+public class LeaderboardResourceIT {
+
+    @Autowired
+    private TestRestTemplate template;
+
+    @SuppressWarnings("null")
+    @Test
+    void submissions_updateLeaderboardAndRank() throws JSONException {
+        String prefix = UUID.randomUUID().toString().substring(0, 8);
+        // Question1 is answered correctly with option 2, Question3 with option 0
+        submit(prefix + "-two", "{\"Question1\": 2, \"Question3\": 0}");
+        submit(prefix + "-one", "{\"Question1\": 2, \"Question3\": 1}");
+        submit(prefix + "-none", "{\"Question1\": 0}");
+
+        ResponseEntity<String> two = template.withBasicAuth("admin", "admin")
+                .getForEntity("/surveys/Survey1/leaderboard/rank/" + prefix + "-two", String.class);
+        assertEquals(200, two.getStatusCode().value());
+        assertEquals(2, new JSONObject(two.getBody()).getInt("score"));
+
+        JSONObject one = new JSONObject(template.withBasicAuth("admin", "admin")
+                .getForEntity("/surveys/Survey1/leaderboard/rank/" + prefix + "-one", String.class).getBody());
+        JSONObject none = new JSONObject(template.withBasicAuth("admin", "admin")
+                .getForEntity("/surveys/Survey1/leaderboard/rank/" + prefix + "-none", String.class).getBody());
+        assertEquals(1, one.getInt("score"));
+        assertEquals(new JSONObject(two.getBody()).getLong("rank") + 1, one.getLong("rank"));
+        assertEquals(one.getLong("rank") + 1, none.getLong("rank"));
+
+        ResponseEntity<String> unknown = template.withBasicAuth("admin", "admin")
+                .getForEntity("/surveys/Survey1/leaderboard/rank/nobody-" + prefix, String.class);
+        assertEquals(404, unknown.getStatusCode().value());
+
+        ResponseEntity<String> top = template.withBasicAuth("admin", "admin")
+                .getForEntity("/surveys/Survey1/leaderboard?top=1", String.class);
+        assertEquals(1, new JSONObject(top.getBody()).getJSONArray("standings").length());
+    }
+
+    private void submit(String respondentId, String answers) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        String body = "{\"respondentId\": \"" + respondentId + "\", \"answers\": " + answers + "}";
+
+        ResponseEntity<String> response = template.withBasicAuth("admin", "admin")
+                .postForEntity("/surveys/Survey1/responses", new HttpEntity<>(body, headers), String.class);
+        assertEquals(204, response.getStatusCode().value());
+    }
+}
@@ -0,0 +1,75 @@
+package com.rvg.springboot.restapi.leaderboard;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Test;
+
+// Test that concurrent updates leave the ranking consistent with each respondent's best score
+public class LeaderboardTest {
+
+    @Test
+    void concurrentRecords_keepBestScoresAndRanks() throws Exception {
+        Leaderboard leaderboard = new Leaderboard(4);
+        Map<String, Integer> expectedBest = new ConcurrentHashMap<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                tasks.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 5000; i++) {
+                        String respondent = "r" + random.nextInt(500);
+                        // Scores beyond the expected maximum force the score range to grow
+                        int score = random.nextInt(40);
+                        leaderboard.record(respondent, score, i);
+                        expectedBest.merge(respondent, score, Math::max);
+                    }
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(expectedBest.size(), leaderboard.respondents());
+        for (Map.Entry<String, Integer> best : expectedBest.entrySet()) {
+            Leaderboard.Entry entry = leaderboard.entryOf(best.getKey());
+            assertEquals(best.getValue(), entry.score());
+
+            long better = expectedBest.values().stream().filter(score -> score > best.getValue()).count();
+            assertEquals(better + 1, leaderboard.rankOf(entry.score()));
+        }
+
+        List<Leaderboard.Entry> top = leaderboard.top(10);
+        assertEquals(10, top.size());
+        int topScore = expectedBest.values().stream().mapToInt(Integer::intValue).max().getAsInt();
+        assertEquals(topScore, top.get(0).score());
+    }
+
+    @Test
+    void ties_areOrderedByWhoReachedTheScoreFirst() {
+        Leaderboard leaderboard = new Leaderboard(4);
+        leaderboard.record("late", 3, 200);
+        leaderboard.record("early", 3, 100);
+        leaderboard.record("low", 1, 50);
+        // Not an improvement, so neither the score nor the time changes
+        leaderboard.record("early", 2, 300);
+
+        assertEquals(List.of("early", "late", "low"),
+                leaderboard.top(10).stream().map(Leaderboard.Entry::respondentId).toList());
+        assertEquals(1, leaderboard.rankOf(3));
+        assertEquals(3, leaderboard.rankOf(1));
+    }
+}
@@ -0,0 +1,36 @@
+/**
+ * Integration test for the SampledRequestLoggingFilter.
+ *
+ * Runs with every request sampled and checks that requests rejected by Spring Security
+ * are logged too.
+ */
+package com.rvg.springboot.restapi.logging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT,
+        properties = { "survey.request-logging.sample-rate=1.0" })
+@ExtendWith(OutputCaptureExtension.class)
+public class SampledRequestLoggingFilterIT {
+
+    @Autowired
+    private TestRestTemplate template;
+
+    @Test
+    void unauthenticatedRequest_isSampled(CapturedOutput output) {
+        assertEquals(401, template.getForEntity("/surveys/Survey1", String.class).getStatusCode().value());
+
+        assertTrue(output.getOut().contains("request method=GET uri=/surveys/Survey1 status=401"),
+                "401 response was not logged");
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ * Integration test for request profiling.
+ *
+ * Runs with profiling enabled and a zero slow-request threshold, so every request is
+ * sampled, and checks both the slow-request endpoint and the emitted JFR events.
+ */
+package com.rvg.springboot.restapi.profiling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.ResponseEntity;
+
+import jdk.jfr.EventType;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT,
+        properties = { "survey.profiling.enabled=true", "survey.profiling.slow-threshold=0ms" })
+public class ProfilingIT {
+
+    @Autowired
+    private TestRestTemplate template;
+
+    @TempDir
+    Path recordingDirectory;
+
+    @SuppressWarnings("null")
+    @Test
+    void slowRequests_containPhaseBreakdown() throws JSONException {
+        assertEquals(200, template.withBasicAuth("admin", "admin")
+                .getForEntity("/surveys/Survey1", String.class).getStatusCode().value());
+
+        ResponseEntity<String> responseEntity = template.withBasicAuth("admin", "admin")
+                .getForEntity("/profiling/slow-requests", String.class);
+        assertEquals(200, responseEntity.getStatusCode().value());
+
+        JSONArray samples = new JSONArray(responseEntity.getBody());
+        JSONObject survey = null;
+        for (int i = 0; i < samples.length() && survey == null; i++) {
+            if (samples.getJSONObject(i).getString("path").equals("/surveys/Survey1")) {
+                survey = samples.getJSONObject(i);
+            }
+        }
+
+        assertTrue(survey != null);
+        assertEquals(200, survey.getInt("status"));
+        assertTrue(survey.getString("handler").contains("SurveyResource#retrieveSurvey"));
+        assertTrue(survey.getDouble("securityMillis") > 0);
+        assertTrue(survey.getDouble("totalMillis") >= survey.getDouble("securityMillis"));
+        // Reading the survey from the store is part of the handler phase
+        assertTrue(survey.getDouble("storeMillis") > 0);
+        assertTrue(survey.getDouble("handlerMillis") >= survey.getDouble("storeMillis"));
+    }
+
+    @Test
+    void phases_areRecordedAsJfrEvents() throws Exception {
+        Path file = recordingDirectory.resolve("profile.jfr");
+        try (Recording recording = new Recording()) {
+            for (String event : List.of("Request", "SecurityPhase", "HandlerPhase", "SerializationPhase",
+                    "StoreAccess")) {
+                recording.enable("com.rvg.survey." + event).withoutThreshold();
+            }
+            recording.start();
+            template.withBasicAuth("admin", "admin").getForEntity("/surveys/Survey1/questions", String.class);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> recorded = RecordingFile.readAllEvents(file);
+        Set<String> events = recorded.stream()
+                .filter(event -> event.hasField("path"))
+                .filter(event -> "/surveys/Survey1/questions".equals(event.getString("path")))
+                .map(RecordedEvent::getEventType)
+                .map(EventType::getName)
+                .collect(Collectors.toSet());
+        assertEquals(Set.of("com.rvg.survey.Request", "com.rvg.survey.SecurityPhase", "com.rvg.survey.HandlerPhase",
+                "com.rvg.survey.SerializationPhase"), events);
+
+        // The handler read the survey from the store
+        assertTrue(recorded.stream()
+                .filter(event -> event.getEventType().getName().equals("com.rvg.survey.StoreAccess"))
+                .anyMatch(event -> "read".equals(event.getString("operation"))
+                        && "Survey1".equals(event.getString("surveyId"))));
+    }
+}
@@ -0,0 +1,48 @@
+package com.rvg.springboot.restapi.profiling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+// Test when the RequestProfilingFilter completes the profile of a request
+public class RequestProfilingFilterTest {
+
+    private final SlowRequestSampler sampler = new SlowRequestSampler(Duration.ZERO, 16);
+    private final RequestProfilingFilter filter = new RequestProfilingFilter(sampler);
+
+    @Test
+    void asyncRequest_isRecordedWhenItCompletes() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/surveys/Survey1/responses/export");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> req.startAsync());
+
+        // The first dispatch returned, but the response is still being written
+        assertTrue(sampler.recent().isEmpty());
+
+        response.setStatus(200);
+        ((MockAsyncContext) request.getAsyncContext()).complete();
+
+        assertEquals(1, sampler.recent().size());
+        SlowRequest sample = sampler.recent().get(0);
+        assertEquals("/surveys/Survey1/responses/export", sample.path());
+        assertEquals(200, sample.status());
+    }
+
+    @Test
+    void syncRequest_isRecordedWhenTheFilterReturns() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/surveys/Survey1");
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+        });
+
+        assertEquals(1, sampler.recent().size());
+    }
+}
@@ -0,0 +1,144 @@
+package com.rvg.springboot.restapi.response;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rvg.springboot.restapi.survey.Question;
+import com.rvg.springboot.restapi.survey.Survey;
+
+// Test that responses survive segment rollover, schema changes and restarts, and export correctly
+public class SurveyResponseStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void exportCsv_readsAllSegmentsWithUnionOfQuestions() throws IOException {
+        SurveyResponseStore store = new SurveyResponseStore(directory.toString(), 2, objectMapper);
+        Survey survey = survey("Q1", "Q2");
+        store.append(survey, "alice", Map.of("Q1", 0, "Q2", 1), 1000L);
+        store.append(survey, "bob, jr.", Map.of("Q1", 1), 2000L);
+        // The segment is full, so this starts a second one
+        store.append(survey, "carol", Map.of("Q2", 0), 3000L);
+        // A changed schema starts a third one
+        store.append(survey("Q1", "Q3"), "dave", Map.of("Q3", 1), 4000L);
+
+        assertEquals(4, store.count("Survey1"));
+        try (var files = Files.list(directory.resolve("Survey1"))) {
+            assertEquals(3, files.count());
+        }
+
+        assertEquals("""
+                respondentId,timestamp,Q1,Q2,Q3
+                alice,1000,0,1,
+                "bob, jr.",2000,1,,
+                carol,3000,,0,
+                dave,4000,,,1
+                """, csv(store));
+    }
+
+    @Test
+    void exportNdjson_afterReopeningSegments() throws IOException {
+        SurveyResponseStore store = new SurveyResponseStore(directory.toString(), 16, objectMapper);
+        store.append(survey("Q1", "Q2"), "alice", Map.of("Q2", 1), 1000L);
+        store.close();
+
+        SurveyResponseStore reopened = new SurveyResponseStore(directory.toString(), 16, objectMapper);
+        reopened.append(survey("Q1", "Q2"), "bob", Map.of("Q1", 0), 2000L);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        reopened.exportNdjson("Survey1", output);
+
+        assertEquals("""
+                {"respondentId":"alice","timestamp":1000,"answers":{"Q2":1}}
+                {"respondentId":"bob","timestamp":2000,"answers":{"Q1":0}}
+                """, output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void append_reusesSegmentWhileColumnsFitAndSizesNewOnesToTheSurvey() throws IOException {
+        SurveyResponseStore store = new SurveyResponseStore(directory.toString(), 65536, objectMapper);
+        store.append(survey("Q1", "Q2"), "alice", Map.of("Q1", 0, "Q2", 1), 1000L);
+        // Removing and reordering questions keeps the current segment
+        store.append(survey("Q2"), "bob", Map.of("Q2", 0), 2000L);
+        store.append(survey("Q2", "Q1"), "carol", Map.of("Q1", 1), 3000L);
+        // A new question needs a new column
+        store.append(survey("Q2", "Q1", "Q3"), "dave", Map.of("Q3", 1), 4000L);
+
+        List<Path> files;
+        try (var stream = Files.list(directory.resolve("Survey1"))) {
+            files = stream.sorted().toList();
+        }
+        assertEquals(2, files.size());
+        // Neither segment preallocates the full capacity of 65536 rows
+        for (Path file : files) {
+            assertTrue(Files.size(file) < 2 * SurveyResponseStore.INITIAL_SEGMENT_CAPACITY * (8 + 64 + 3));
+        }
+
+        assertEquals("""
+                respondentId,timestamp,Q1,Q2,Q3
+                alice,1000,0,1,
+                bob,2000,,0,
+                carol,3000,1,,
+                dave,4000,,,1
+                """, csv(store));
+    }
+
+    @Test
+    void append_rejectsSurveyIdOutsideDirectory() {
+        SurveyResponseStore store = new SurveyResponseStore(directory.resolve("responses").toString(), 16,
+                objectMapper);
+        Survey survey = new Survey("..", "Survey", "Survey", List.of(new Question("Q1", "Q1", "A", List.of("A"))));
+
+        assertThrows(IllegalArgumentException.class, () -> store.append(survey, "alice", Map.of("Q1", 0), 1000L));
+    }
+
+    @Test
+    void withoutDirectory_keepsResponsesInMemory() throws IOException {
+        SurveyResponseStore store = new SurveyResponseStore("", 2, objectMapper);
+        store.append(survey("Q1"), "alice", Map.of("Q1", 1), 1000L);
+        store.append(survey("Q1"), "bob", Map.of(), 2000L);
+        // The segment is full, so this starts a second one
+        store.append(survey("Q1"), "carol", Map.of("Q1", 0), 3000L);
+        store.close();
+
+        assertEquals("""
+                respondentId,timestamp,Q1
+                alice,1000,1
+                bob,2000,
+                carol,3000,0
+                """, csv(store));
+        try (var files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    private static String csv(SurveyResponseStore store) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        store.exportCsv("Survey1", output);
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    private static Survey survey(String... questionIds) {
+        List<Question> questions = Arrays.stream(questionIds)
+                .map(id -> new Question(id, id, "A", List.of("A", "B")))
+                .toList();
+        return new Survey("Survey1", "Survey", "Survey", questions);
+    }
+}
@@ -0,0 +1,90 @@
+package com.rvg.springboot.restapi.schedule;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Test;
+
+// Test that timeouts on every wheel level fire at the first tick at or after their deadline
+public class HierarchicalTimingWheelTest {
+
+    private static final long TICK = 10;
+
+    @Test
+    void advance_runsEachTimeoutAtItsDeadlineTick() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK, 0);
+        List<long[]> fired = new ArrayList<>();
+        long[] now = { 0 };
+
+        // Deadlines on all four levels, plus some beyond the top wheel's reach of 64^4 ticks
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long[] reach = { 64, 64 * 64, 64 * 64 * 64, 64 * 64 * 64 * 64, 2 * 64 * 64 * 64 * 64 };
+        List<Long> deadlines = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            deadlines.add(random.nextLong(1, reach[random.nextInt(reach.length)] * TICK));
+        }
+        for (long deadline : deadlines) {
+            wheel.schedule(deadline, () -> fired.add(new long[] { deadline, now[0] }));
+        }
+        assertEquals(deadlines.size(), wheel.pending());
+
+        long end = deadlines.stream().mapToLong(Long::longValue).max().orElseThrow() + TICK;
+        // Jump in uneven steps, like a thread that wakes up late now and then
+        while (now[0] < end) {
+            now[0] = Math.min(end, now[0] + TICK * random.nextLong(1, 5000));
+            wheel.advance(now[0]);
+        }
+
+        assertEquals(deadlines.size(), fired.size());
+        assertEquals(0, wheel.pending());
+        for (long[] firing : fired) {
+            assertTrue(firing[1] >= firing[0], "fired before deadline " + firing[0]);
+        }
+    }
+
+    @Test
+    void advance_tickByTick_firesInTheTickOfTheDeadline() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK, 0);
+        List<Long> firedAt = new ArrayList<>();
+        long[] now = { 0 };
+        long deadline = (64 * 64 + 65) * TICK + 3;
+        wheel.schedule(deadline, () -> firedAt.add(now[0]));
+
+        while (firedAt.isEmpty()) {
+            now[0] += TICK;
+            wheel.advance(now[0]);
+        }
+
+        assertEquals(Math.ceilDiv(deadline, TICK) * TICK, firedAt.get(0));
+    }
+
+    @Test
+    void cancel_preventsTheTaskFromRunning() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK, 0);
+        List<String> fired = new ArrayList<>();
+        HierarchicalTimingWheel.Timeout cancelled = wheel.schedule(5_000, () -> fired.add("cancelled"));
+        wheel.schedule(5_000, () -> fired.add("kept"));
+
+        cancelled.cancel();
+        wheel.advance(10_000);
+
+        assertEquals(List.of("kept"), fired);
+        assertEquals(0, wheel.pending());
+    }
+
+    @Test
+    void schedule_pastDeadline_runsAtTheNextTick() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK, 0);
+        wheel.advance(1_000);
+        List<String> fired = new ArrayList<>();
+        wheel.schedule(500, () -> fired.add("late"));
+
+        assertEquals(0, wheel.advance(1_009));
+        assertEquals(1, wheel.advance(1_010));
+        assertEquals(List.of("late"), fired);
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ * Integration test for the SurveyScheduleResource REST API.
+ *
+ * Schedules the seeded survey to open shortly and checks that submissions and question
+ * edits are rejected until the timing wheel opens it.
+ */
+package com.rvg.springboot.restapi.schedule;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Instant;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT,
+        properties = { "survey.schedule.file=", "survey.schedule.tick=50ms" })
+public class SurveyScheduleIT {
+
+    @Autowired
+    private TestRestTemplate template;
+
+    @SuppressWarnings("null")
+    @Test
+    void scheduledSurvey_rejectsChangesUntilItOpens() throws Exception {
+        Instant opensAt = Instant.now().plusSeconds(5);
+        ResponseEntity<String> scheduled = exchange(HttpMethod.PUT, "/surveys/Survey1/schedule",
+                "{\"opensAt\": \"" + opensAt + "\"}");
+        assertEquals(200, scheduled.getStatusCode().value());
+        assertEquals("SCHEDULED", new JSONObject(scheduled.getBody()).getString("status"));
+
+        try {
+            assertEquals(409, submit().getStatusCode().value());
+            assertEquals(409, exchange(HttpMethod.DELETE, "/surveys/Survey1/questions/Question1", null)
+                    .getStatusCode().value());
+
+            long deadline = System.currentTimeMillis() + 15_000;
+            while (!"OPEN".equals(status()) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertEquals("OPEN", status());
+            assertEquals(204, submit().getStatusCode().value());
+        } finally {
+            assertEquals(204, exchange(HttpMethod.DELETE, "/surveys/Survey1/schedule", null).getStatusCode().value());
+        }
+    }
+
+    @Test
+    void schedule_closingBeforeOpening_isRejected() {
+        Instant now = Instant.now();
+        ResponseEntity<String> response = exchange(HttpMethod.PUT, "/surveys/Survey1/schedule",
+                "{\"opensAt\": \"" + now + "\", \"closesAt\": \"" + now.minusSeconds(1) + "\"}");
+        assertEquals(400, response.getStatusCode().value());
+    }
+
+    private String status() throws JSONException {
+        return new JSONObject(template.withBasicAuth("admin", "admin")
+                .getForEntity("/surveys/Survey1/schedule", String.class).getBody()).getString("status");
+    }
+
+    private ResponseEntity<String> submit() {
+        return exchange(HttpMethod.POST, "/surveys/Survey1/responses",
+                "{\"respondentId\": \"scheduled\", \"answers\": {\"Question1\": 2}}");
+    }
+
+    private ResponseEntity<String> exchange(HttpMethod method, String url, String body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return template.withBasicAuth("admin", "admin").exchange(url, method, new HttpEntity<>(body, headers),
+                String.class);
+    }
+}
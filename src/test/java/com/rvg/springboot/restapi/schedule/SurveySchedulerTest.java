@@ -0,0 +1,71 @@
+package com.rvg.springboot.restapi.schedule;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Test survey statuses derived from schedules and their persistence across restarts
+public class SurveySchedulerTest {
+
+    private static final Instant NOW = Instant.parse("2026-11-01T12:00:00Z");
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void statusOf_followsTheSchedule() {
+        SurveyScheduler scheduler = scheduler(NOW);
+
+        assertEquals(SurveyStatus.OPEN, scheduler.statusOf("Unscheduled"));
+        assertEquals(SurveyStatus.SCHEDULED,
+                scheduler.schedule(new SurveySchedule("Later", NOW.plusSeconds(60), null)));
+        assertEquals(SurveyStatus.OPEN,
+                scheduler.schedule(new SurveySchedule("Now", NOW.minusSeconds(60), NOW.plusSeconds(60))));
+        assertEquals(SurveyStatus.CLOSED, scheduler.schedule(new SurveySchedule("Over", null, NOW)));
+
+        assertThrows(ResponseStatusException.class, () -> scheduler.requireOpen("Later"));
+        scheduler.requireOpen("Now");
+        assertThrows(IllegalArgumentException.class,
+                () -> scheduler.schedule(new SurveySchedule("Invalid", NOW, NOW)));
+    }
+
+    @Test
+    void schedules_surviveRestart() {
+        SurveyScheduler before = scheduler(NOW);
+        before.schedule(new SurveySchedule("Survey1", NOW.minusSeconds(60), NOW.plusSeconds(3600)));
+        before.schedule(new SurveySchedule("Survey2", NOW.plusSeconds(60), null));
+        before.schedule(new SurveySchedule("Survey3", null, NOW.plusSeconds(60)));
+        before.unschedule("Survey3");
+
+        // Two hours later Survey1 has closed while the application was down
+        SurveyScheduler after = scheduler(NOW.plusSeconds(7200));
+        after.start();
+        try {
+            assertEquals(SurveyStatus.CLOSED, after.statusOf("Survey1"));
+            assertEquals(SurveyStatus.OPEN, after.statusOf("Survey2"));
+            assertEquals(NOW.plusSeconds(60), after.scheduleOf("Survey2").opensAt());
+            assertNull(after.scheduleOf("Survey3"));
+        } finally {
+            after.stop();
+        }
+    }
+
+    private SurveyScheduler scheduler(Instant now) {
+        return new SurveyScheduler(objectMapper, directory.resolve("schedules.json").toString(), Duration.ofSeconds(1),
+                Clock.fixed(now, ZoneOffset.UTC));
+    }
+}
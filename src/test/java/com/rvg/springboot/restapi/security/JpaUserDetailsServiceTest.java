@@ -0,0 +1,50 @@
+package com.rvg.springboot.restapi.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.rvg.springboot.restapi.user.UserAccount;
+import com.rvg.springboot.restapi.user.UserDetailsRepository;
+
+// Test how stored accounts are mapped to Spring Security principals
+public class JpaUserDetailsServiceTest {
+
+    private final UserDetailsRepository repository = mock(UserDetailsRepository.class);
+    private final JpaUserDetailsService service = new JpaUserDetailsService(repository);
+
+    @Test
+    void storedRole_becomesRoleAuthority() {
+        when(repository.findAccountByName("admin"))
+                .thenReturn(Optional.of(new UserAccount(1L, "admin", "Admin", "{noop}admin")));
+
+        UserDetails principal = service.loadUserByUsername("admin");
+
+        assertEquals(List.of("ROLE_ADMIN"), authorities(principal));
+        assertTrue(principal.isEnabled());
+    }
+
+    @Test
+    void storedRoleWithPrefix_isNotPrefixedTwice() {
+        when(repository.findAccountByName("prefixed"))
+                .thenReturn(Optional.of(new UserAccount(2L, "prefixed", "ROLE_Admin", null)));
+
+        UserDetails principal = service.loadUserByUsername("prefixed");
+
+        assertEquals(List.of("ROLE_ADMIN"), authorities(principal));
+        assertFalse(principal.isEnabled());
+    }
+
+    private static List<String> authorities(UserDetails principal) {
+        return principal.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
+    }
+}
@@ -0,0 +1,67 @@
+package com.rvg.springboot.restapi.survey;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+// Test that concurrent duplicates run once and that failures are not remembered
+public class IdempotencyCacheTest {
+
+    private final IdempotencyCache cache = new IdempotencyCache(100, Duration.ofMinutes(1));
+
+    @Test
+    void execute_concurrentDuplicatesWaitForTheFirstRequest() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ResponseEntity<Object>>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> cache.execute("key", () -> {
+                    executions.incrementAndGet();
+                    await(release);
+                    return ResponseEntity.created(URI.create("/q/" + executions.get())).build();
+                })));
+            }
+            release.countDown();
+
+            for (Future<ResponseEntity<Object>> result : results) {
+                assertEquals(URI.create("/q/1"), result.get().getHeaders().getLocation());
+            }
+            assertEquals(1, executions.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_failedRequestCanBeRetried() {
+        assertThrows(IllegalStateException.class, () -> cache.execute("key", () -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        ResponseEntity<Object> retry = cache.execute("key", () -> ResponseEntity.noContent().build());
+        assertEquals(204, retry.getStatusCode().value());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.rvg.springboot.restapi.survey;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Test the merge patch against examples from RFC 7396
+public class JsonMergePatchTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void apply_mergesReplacesAndRemovesMembers() throws Exception {
+        assertPatch("""
+                {"title":"Hello!","author":{"givenName":"John","familyName":"Doe"},"tags":["example","sample"],
+                 "content":"This will be unchanged"}
+                """, """
+                {"title":"Goodbye!","author":{"familyName":null},"phoneNumber":"+01-123-456-7890","tags":["example"]}
+                """, """
+                {"title":"Goodbye!","author":{"givenName":"John"},"tags":["example"],"content":"This will be unchanged",
+                 "phoneNumber":"+01-123-456-7890"}
+                """);
+    }
+
+    @Test
+    void apply_nonObjectPatchReplacesTarget() throws Exception {
+        assertPatch("{\"a\":\"b\"}", "[\"c\"]", "[\"c\"]");
+        assertPatch("[1,2]", "{\"a\":\"b\",\"c\":null}", "{\"a\":\"b\"}");
+        assertPatch("{\"e\":null}", "{\"a\":1}", "{\"e\":null,\"a\":1}");
+    }
+
+    private void assertPatch(String target, String patch, String expected) throws Exception {
+        JsonNode result = JsonMergePatch.apply(objectMapper.readTree(target), objectMapper.readTree(patch));
+        assertEquals(objectMapper.readTree(expected), result);
+    }
+}
@@ -0,0 +1,54 @@
+package com.rvg.springboot.restapi.survey;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+// Test that the persistent list behaves like an ArrayList and never changes earlier versions
+public class PersistentListTest {
+
+    @Test
+    void editor_matchesArrayListUnderRandomEdits() {
+        SplittableRandom random = new SplittableRandom(42);
+        List<Integer> expected = new ArrayList<>();
+        PersistentList.Editor<Integer> actual = PersistentList.<Integer>empty().edit();
+
+        for (int i = 0; i < 5000; i++) {
+            int operation = random.nextInt(4);
+            if (operation == 0 && !expected.isEmpty()) {
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.remove(index), actual.remove(index));
+            } else if (operation == 1 && !expected.isEmpty()) {
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.set(index, i), actual.set(index, i));
+            } else {
+                int index = random.nextInt(expected.size() + 1);
+                expected.add(index, i);
+                actual.add(index, i);
+            }
+        }
+
+        assertEquals(expected, actual);
+        assertEquals(expected, new ArrayList<>(actual.toPersistentList()));
+    }
+
+    @Test
+    void changes_leaveEarlierVersionsUnchanged() {
+        PersistentList<String> v1 = PersistentList.copyOf(List.of("a", "b", "c", "d", "e"));
+
+        PersistentList.Editor<String> editor = v1.edit();
+        editor.set(2, "C");
+        editor.removeIf(element -> element.equals("a"));
+        editor.add("f");
+        PersistentList<String> v2 = editor.toPersistentList();
+
+        assertEquals(List.of("a", "b", "c", "d", "e"), v1);
+        assertEquals(List.of("b", "C", "d", "e", "f"), v2);
+        assertEquals(List.of("b", "C", "e", "f"), v2.minus(2));
+        assertEquals(List.of("b", "C", "d", "e", "f"), v2);
+    }
+}
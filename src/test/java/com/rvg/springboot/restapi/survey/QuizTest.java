@@ -0,0 +1,66 @@
+package com.rvg.springboot.restapi.survey;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+// Test that quizzes are deterministic per respondent and that scoring maps shuffled answers back
+public class QuizTest {
+
+    private final Survey survey = new SurveyService().retrieveSurveyById("Survey1");
+
+    @Test
+    void getQuestions_isDeterministicPerRespondent() {
+        List<String> first = ids(new Quiz(survey, "respondent-1").getQuestions());
+        List<String> again = ids(new Quiz(survey, "respondent-1").getQuestions());
+
+        assertEquals(first, again);
+        assertEquals(Set.of("Question1", "Question2", "Question3", "Question4"), new HashSet<>(first));
+
+        // With 24 possible orders, some of 20 respondents must see a different one
+        Set<List<String>> orders = new HashSet<>();
+        for (int i = 0; i < 20; i++) {
+            orders.add(ids(new Quiz(survey, "respondent-" + i).getQuestions()));
+        }
+        assertNotEquals(1, orders.size());
+    }
+
+    @Test
+    void score_mapsShuffledOptionsBackToOriginals() {
+        Quiz quiz = new Quiz(survey, "respondent-7");
+
+        // Pick the correct answer of Question1 as it is shown to this respondent
+        Quiz.ShuffledQuestion shown = quiz.getQuestions().stream()
+                .filter(question -> question.getId().equals("Question1")).findFirst().orElseThrow();
+        int shuffledIndex = shown.getOptions().indexOf("JavaScript");
+
+        Quiz.Score score = quiz.score(Map.of("Question1", shuffledIndex, "Question2", 99));
+
+        assertEquals(1, score.correct());
+        assertEquals(4, score.total());
+        // JavaScript is option 2 in the original list
+        assertEquals(2, score.originalAnswers().get("Question1"));
+        assertEquals(-1, score.originalAnswers().get("Question2"));
+    }
+
+    @Test
+    void questionWithoutOptions_isShownEmptyAndScoredWrong() {
+        Survey withoutOptions = new Survey("Survey2", "Survey", "Survey",
+                List.of(new Question("Open", "Anything to add?", "Yes", null)));
+        Quiz quiz = new Quiz(withoutOptions, "respondent-1");
+
+        assertEquals(List.of(), quiz.getQuestions().get(0).getOptions());
+        assertEquals(-1, quiz.toOriginalOptionIndex("Open", 0));
+        assertEquals(0, quiz.score(Map.of("Open", 0)).correct());
+    }
+
+    private static List<String> ids(List<Quiz.ShuffledQuestion> questions) {
+        return questions.stream().map(Quiz.ShuffledQuestion::getId).toList();
+    }
+}
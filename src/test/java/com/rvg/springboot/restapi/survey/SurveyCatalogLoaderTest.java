@@ -0,0 +1,167 @@
+package com.rvg.springboot.restapi.survey;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rvg.springboot.restapi.analytics.AnalyticsService;
+import com.rvg.springboot.restapi.leaderboard.LeaderboardService;
+import com.rvg.springboot.restapi.response.Submission;
+import com.rvg.springboot.restapi.response.SubmissionListener;
+import com.rvg.springboot.restapi.schedule.SurveySchedule;
+import com.rvg.springboot.restapi.schedule.SurveyScheduler;
+
+// Test the SurveyCatalogLoader against JSON and NDJSON files in a temporary directory
+public class SurveyCatalogLoaderTest {
+
+    @TempDir
+    Path catalogDirectory;
+
+    @TempDir
+    Path journalDirectory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    // Keeps schedules in memory; its wheel thread is never started
+    private final SurveyScheduler surveyScheduler = new SurveyScheduler(objectMapper, "", Duration.ofSeconds(1));
+
+    private final AnalyticsService analyticsService = new AnalyticsService(12);
+    private final LeaderboardService leaderboardService = new LeaderboardService();
+    private final ObjectProvider<SubmissionListener> submissionListeners = new StaticListableBeanFactory(
+            Map.of("analyticsService", analyticsService, "leaderboardService", leaderboardService))
+            .getBeanProvider(SubmissionListener.class);
+
+    private SurveyService surveyService;
+
+    private SurveyCatalogLoader loader;
+
+    @BeforeEach
+    void setUp() {
+        surveyService = new SurveyService();
+        loader = new SurveyCatalogLoader(surveyService, surveyScheduler, submissionListeners, objectMapper,
+                catalogDirectory.toString(), false);
+    }
+
+    @Test
+    void loadAll_readsJsonArraysAndNdjsonLines() throws Exception {
+        Files.writeString(catalogDirectory.resolve("surveys.json"), """
+                [
+                  {"id": "Survey2", "title": "Cloud", "description": "Cloud survey",
+                   "questions": [{"id": "Q1", "description": "Best cloud?", "correctAnswer": "AWS",
+                                  "options": ["AWS", "Azure"]}]},
+                  {"id": "Survey3", "title": "Empty", "description": "No questions"}
+                ]
+                """);
+        Files.writeString(catalogDirectory.resolve("more.ndjson"), """
+                {"id": "Survey4", "title": "Line 1", "description": "First", "questions": []}
+                {"id": "Survey5", "title": "Line 2", "description": "Second", "questions": []}
+                """);
+
+        loader.loadAll(catalogDirectory);
+
+        // The seed survey plus four loaded surveys
+        assertEquals(5, surveyService.retrieveAllSurveys().size());
+        assertEquals("Best cloud?", surveyService.retrieveSpecificSurveyQuestion("Survey2", "Q1").getDescription());
+        assertNotNull(surveyService.retrieveAllQuestions("Survey3"));
+    }
+
+    @Test
+    void loadFile_replacesSurveysOfAChangedFile() throws Exception {
+        Path file = catalogDirectory.resolve("more.ndjson");
+        Files.writeString(file, """
+                {"id": "Survey4", "title": "Old", "description": "First", "questions": []}
+                {"id": "Survey5", "title": "Line 2", "description": "Second", "questions": []}
+                """);
+        loader.loadFile(file);
+
+        Files.writeString(file, """
+                {"id": "Survey4", "title": "New", "description": "First", "questions": []}
+                """);
+        loader.loadFile(file);
+
+        assertEquals("New", surveyService.retrieveSurveyById("Survey4").getTitle());
+        assertNull(surveyService.retrieveSurveyById("Survey5"));
+
+        loader.unloadFile(file);
+        assertNull(surveyService.retrieveSurveyById("Survey4"));
+        assertNotNull(surveyService.retrieveSurveyById("Survey1"));
+    }
+
+    @Test
+    void unloadFile_dropsSchedulesOfRemovedSurveys() throws Exception {
+        Path file = catalogDirectory.resolve("more.ndjson");
+        Files.writeString(file, """
+                {"id": "Survey4", "title": "Scheduled", "description": "First", "questions": []}
+                """);
+        loader.loadFile(file);
+        surveyScheduler.schedule(new SurveySchedule("Survey4", null, Instant.now().plusSeconds(60)));
+
+        loader.unloadFile(file);
+
+        assertNull(surveyScheduler.scheduleOf("Survey4"));
+    }
+
+    @Test
+    void unloadFile_dropsStatisticsOfRemovedSurveys() throws Exception {
+        Path file = catalogDirectory.resolve("more.ndjson");
+        Files.writeString(file, """
+                {"id": "Survey4", "title": "Answered", "description": "First", "questions": []}
+                """);
+        loader.loadFile(file);
+        Survey survey = surveyService.retrieveSurveyById("Survey4");
+        for (SubmissionListener listener : List.of(analyticsService, leaderboardService)) {
+            listener.onSubmission(survey, new Submission("alice", Map.of(), null), 1000L);
+        }
+        assertEquals(1, analyticsService.stats("Survey4").submissions());
+        assertEquals(1, leaderboardService.respondents("Survey4"));
+
+        loader.unloadFile(file);
+
+        assertEquals(0, analyticsService.stats("Survey4").submissions());
+        assertEquals(0, leaderboardService.respondents("Survey4"));
+    }
+
+    @Test
+    void journaledEdits_surviveRestartAndReload() throws Exception {
+        String questionId;
+        String journalFile = journalDirectory.resolve("survey-journal.log").toString();
+        Path file = catalogDirectory.resolve("more.ndjson");
+        Files.writeString(file, """
+                {"id": "Survey4", "title": "Catalog", "description": "First", "questions": []}
+                """);
+
+        try (SurveyMutationJournal journal = new SurveyMutationJournal(objectMapper, journalFile)) {
+            SurveyService service = new SurveyService(journal, false, 1);
+            new SurveyCatalogLoader(service, surveyScheduler, submissionListeners, objectMapper,
+                    catalogDirectory.toString(), false).loadFile(file);
+            questionId = service.addNewSurveyQuestion("Survey4", new Question(null, "Edited", "A", List.of("A", "B")));
+        }
+
+        // Restart: replay the journal, then load and reload the unchanged catalog
+        try (SurveyMutationJournal journal = new SurveyMutationJournal(objectMapper, journalFile)) {
+            SurveyService service = new SurveyService(journal, false, 1);
+            SurveyCatalogLoader restarted = new SurveyCatalogLoader(service, surveyScheduler, submissionListeners,
+                    objectMapper, catalogDirectory.toString(), false);
+            restarted.loadFile(file);
+            restarted.loadFile(file);
+            assertEquals("Edited", service.retrieveSpecificSurveyQuestion("Survey4", questionId).getDescription());
+
+            restarted.unloadFile(file);
+            assertNotNull(service.retrieveSurveyById("Survey4"));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.rvg.springboot.restapi.survey;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+// Test survey versions, time-travel lookups and retention
+public class SurveyHistoryTest {
+
+    @Test
+    void mutations_createVersionsThatShareUnchangedQuestions() {
+        SurveyService surveyService = new SurveyService();
+        Survey original = surveyService.retrieveSurveyById("Survey1");
+
+        surveyService.deleteSurveyQuestion("Survey1", "Question1");
+        surveyService.addNewSurveyQuestion("Survey1", new Question(null, "New", "A", Arrays.asList("A", "B")));
+
+        List<SurveyVersion> versions = surveyService.retrieveSurveyHistory("Survey1");
+        assertEquals(List.of(1L, 2L, 3L), versions.stream().map(SurveyVersion::version).toList());
+        assertSame(original, surveyService.retrieveSurveyVersion("Survey1", 1).survey());
+        assertEquals(4, original.getQuestions().size());
+
+        // Question2 was not touched, so every version holds the same instance
+        Question question2 = original.findQuestion("Question2");
+        assertSame(question2, surveyService.retrieveSurveyVersion("Survey1", 3).survey().findQuestion("Question2"));
+        assertNull(surveyService.retrieveSurveyVersion("Survey1", 2).survey().findQuestion("Question1"));
+    }
+
+    @Test
+    void asOf_returnsVersionCurrentAtInstant() {
+        SurveyHistory history = new SurveyHistory(new SurveyHistory.Retention(0, Duration.ZERO));
+        Instant start = Instant.parse("2026-01-01T00:00:00Z");
+        Survey first = survey("first");
+        Survey second = survey("second");
+        history.record(first, start);
+        history.record(second, start.plusSeconds(60));
+
+        assertNull(history.asOf(start.minusMillis(1), start.plusSeconds(3600)));
+        assertSame(first, history.asOf(start.plusSeconds(59), start.plusSeconds(3600)).survey());
+        assertSame(second, history.asOf(start.plusSeconds(60), start.plusSeconds(3600)).survey());
+        assertSame(second, history.asOf(start.plusSeconds(3600), start.plusSeconds(3600)).survey());
+    }
+
+    @Test
+    void retention_prunesOldVersionsButKeepsCurrent() {
+        Instant start = Instant.parse("2026-01-01T00:00:00Z");
+
+        SurveyHistory byCount = new SurveyHistory(new SurveyHistory.Retention(2, Duration.ZERO));
+        for (int i = 0; i < 5; i++) {
+            byCount.record(survey("v" + i), start.plusSeconds(i));
+        }
+        assertEquals(List.of(4L, 5L), byCount.versions(start.plusSeconds(4)).stream().map(SurveyVersion::version).toList());
+        assertNull(byCount.asOf(start.plusSeconds(2), start.plusSeconds(4)));
+
+        SurveyHistory byAge = new SurveyHistory(new SurveyHistory.Retention(0, Duration.ofHours(1)));
+        byAge.record(survey("old"), start);
+        byAge.record(survey("replaced"), start.plusSeconds(60));
+        byAge.record(survey("current"), start.plus(Duration.ofHours(2)));
+        // "old" was replaced more than an hour ago, "replaced" only just now
+        assertEquals(List.of(2L, 3L), byAge.versions(start.plus(Duration.ofHours(2))).stream().map(SurveyVersion::version).toList());
+    }
+
+    @Test
+    void retention_prunesExpiredVersionsOnRead() {
+        Instant start = Instant.parse("2026-01-01T00:00:00Z");
+        SurveyHistory history = new SurveyHistory(new SurveyHistory.Retention(0, Duration.ofHours(1)));
+        history.record(survey("old"), start);
+        Survey current = survey("current");
+        history.record(current, start.plusSeconds(60));
+        assertEquals(List.of(1L, 2L), history.versions(start.plusSeconds(120)).stream()
+                .map(SurveyVersion::version).toList());
+
+        // No new version is recorded, yet "old" expires an hour after it was replaced
+        Instant later = start.plus(Duration.ofHours(2));
+        assertNull(history.version(1, later));
+        assertNull(history.asOf(start.plusSeconds(30), later));
+        assertSame(current, history.asOf(start.plusSeconds(90), later).survey());
+        assertEquals(List.of(2L), history.versions(later).stream().map(SurveyVersion::version).toList());
+    }
+
+    private static Survey survey(String title) {
+        return new Survey("Survey1", title, title, List.of());
+    }
+}
@@ -38,6 +38,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 
 @SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
 public class SurveyResourceIT {
@@ -195,6 +196,133 @@ public class SurveyResourceIT {
         assertTrue(responseEntityDelete.getStatusCode().is2xxSuccessful());
     }
 
+    @Test
+    void batchGetQuestions_returnsResultsInRequestOrder() throws JSONException {
+        String requestBody = """
+                [
+                    { "surveyId": "Survey1", "questionId": "Question3" },
+                    { "surveyId": "Survey1", "questionId": "Missing" },
+                    { "surveyId": "NoSuchSurvey", "questionId": "Question1" },
+                    { "surveyId": "Survey1", "questionId": "Question1" }
+                ]
+                """;
+
+        HttpEntity<String> httpEntity = new HttpEntity<String>(requestBody, createHttpContentTypeAndAuthHeaders());
+        ResponseEntity<String> responseEntity = template.exchange("/questions:batchGet", HttpMethod.POST, httpEntity,
+                String.class);
+
+        assertEquals(200, responseEntity.getStatusCode().value());
+        JSONAssert.assertEquals("""
+                [
+                    { "surveyId": "Survey1", "questionId": "Question3", "found": true, "question": { "id": "Question3" } },
+                    { "surveyId": "Survey1", "questionId": "Missing", "found": false },
+                    { "surveyId": "NoSuchSurvey", "questionId": "Question1", "found": false },
+                    { "surveyId": "Survey1", "questionId": "Question1", "found": true, "question": { "id": "Question1" } }
+                ]
+                """, responseEntity.getBody(), false);
+    }
+
+    @Test
+    void batchGetQuestions_withNullElement_isBadRequest() {
+        String requestBody = """
+                [
+                    { "surveyId": "Survey1", "questionId": "Question1" },
+                    null
+                ]
+                """;
+
+        HttpEntity<String> httpEntity = new HttpEntity<String>(requestBody, createHttpContentTypeAndAuthHeaders());
+        ResponseEntity<String> responseEntity = template.exchange("/questions:batchGet", HttpMethod.POST, httpEntity,
+                String.class);
+
+        assertEquals(400, responseEntity.getStatusCode().value());
+    }
+
+    @Test
+    void patchSurveyQuestion_updatesInPlace() throws JSONException {
+        HttpHeaders headers = createHttpContentTypeAndAuthHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/merge-patch+json"));
+        String url = "/surveys/Survey1/questions/Question2";
+
+        ResponseEntity<String> patched = template.exchange(url, HttpMethod.PATCH,
+                new HttpEntity<String>("{\"description\": \"Who created Java?\"}", headers), String.class);
+
+        assertEquals(200, patched.getStatusCode().value());
+        JSONAssert.assertEquals("""
+                {"id": "Question2", "description": "Who created Java?", "correctAnswer": "Sun Microsystems"}
+                """, patched.getBody(), false);
+
+        // The question keeps its position
+        ResponseEntity<String> questions = template.exchange(GENERIC_QUESTIONS_URL, HttpMethod.GET,
+                new HttpEntity<String>(null, headers), String.class);
+        JSONAssert.assertEquals("""
+                [{"id": "Question1"}, {"id": "Question2", "description": "Who created Java?"},
+                 {"id": "Question3"}, {"id": "Question4"}]
+                """, questions.getBody(), false);
+
+        // Changing the ID is rejected
+        ResponseEntity<String> rejected = template.exchange(url, HttpMethod.PATCH,
+                new HttpEntity<String>("{\"id\": \"Other\"}", headers), String.class);
+        assertEquals(400, rejected.getStatusCode().value());
+
+        // Restore the seed data for the other tests
+        template.exchange(url, HttpMethod.PATCH, new HttpEntity<String>(
+                "{\"description\": \"Which company developed the Java programming language?\"}", headers),
+                String.class);
+    }
+
+    @Test
+    void retrieveSurvey_pastVersions() {
+        HttpEntity<String> httpEntity = new HttpEntity<String>(null, createHttpContentTypeAndAuthHeaders());
+
+        ResponseEntity<String> first = template.exchange("/surveys/Survey1?version=1", HttpMethod.GET, httpEntity,
+                String.class);
+        assertEquals(200, first.getStatusCode().value());
+
+        ResponseEntity<String> beforeCreation = template.exchange("/surveys/Survey1?asOf=2000-01-01T00:00:00Z",
+                HttpMethod.GET, httpEntity, String.class);
+        assertEquals(404, beforeCreation.getStatusCode().value());
+
+        ResponseEntity<String> versions = template.exchange("/surveys/Survey1/versions", HttpMethod.GET, httpEntity,
+                String.class);
+        assertEquals(200, versions.getStatusCode().value());
+        assertTrue(versions.getBody().contains("\"version\":1"));
+    }
+
+    @Test
+    void cloneSurvey_sharesQuestionsUntilModified() throws JSONException {
+        HttpHeaders headers = createHttpContentTypeAndAuthHeaders();
+
+        ResponseEntity<String> created = template.exchange("/surveys/Survey1:clone", HttpMethod.POST,
+                new HttpEntity<String>("{\"id\": \"Survey1-clone\", \"title\": \"Cloned\"}", headers), String.class);
+        assertEquals(201, created.getStatusCode().value());
+        assertEquals("/surveys/Survey1-clone", created.getHeaders().getLocation().getPath());
+
+        // Deleting a question of the clone leaves the template alone
+        template.exchange("/surveys/Survey1-clone/questions/Question1", HttpMethod.DELETE,
+                new HttpEntity<String>(null, headers), String.class);
+        ResponseEntity<String> clone = template.exchange("/surveys/Survey1-clone", HttpMethod.GET,
+                new HttpEntity<String>(null, headers), String.class);
+        JSONAssert.assertEquals("""
+                {"id": "Survey1-clone", "title": "Cloned", "description": "Description of the Survey",
+                 "questions": [{"id": "Question2"}, {"id": "Question3"}, {"id": "Question4"}]}
+                """, clone.getBody(), false);
+        assertEquals(200, template.exchange(SPECIFIC_QUESTION_URL, HttpMethod.GET,
+                new HttpEntity<String>(null, headers), String.class).getStatusCode().value());
+
+        // The ID is taken now
+        ResponseEntity<String> conflict = template.exchange("/surveys/Survey1:clone", HttpMethod.POST,
+                new HttpEntity<String>("{\"id\": \"Survey1-clone\"}", headers), String.class);
+        assertEquals(409, conflict.getStatusCode().value());
+
+        // IDs that do not fit in a URL path segment or a file name are rejected
+        for (String invalidId : new String[] { "..", "a/b", "a:b", "x".repeat(65) }) {
+            ResponseEntity<String> invalid = template.exchange("/surveys/Survey1:clone", HttpMethod.POST,
+                    new HttpEntity<String>("{\"id\": \"" + invalidId + "\"}", headers), String.class);
+            assertEquals(400, invalid.getStatusCode().value());
+        }
+    }
+
     /**
      * Creates and returns HttpHeaders with "Content-Type" set to "application/json"
      * and "Authorization" set to a Basic Auth encoded string for the provided
@@ -5,8 +5,11 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 
 import org.junit.jupiter.api.Test;
@@ -15,6 +18,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
@@ -24,6 +28,8 @@ import org.springframework.test.web.servlet.RequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.skyscreamer.jsonassert.JSONAssert;
 
+import com.rvg.springboot.restapi.schedule.SurveyScheduler;
+
 // Test the SurveyResource class using the SpringExtension and WebMvcTest
 // The WebMvcTest annotation is used to test the REST controller
 // The MockBean annotation is used to mock the SurveyService dependency
@@ -32,12 +38,17 @@ import org.skyscreamer.jsonassert.JSONAssert;
 @ExtendWith(SpringExtension.class)
 @WebMvcTest(controllers = SurveyResource.class)
 @AutoConfigureMockMvc(addFilters = false)
+@Import(IdempotencyCache.class)
 public class SurveyResourceTest {
 
     // Mock the SurveyService to simulate its behavior
     @MockBean
     private SurveyService surveyService;
 
+    // Without stubbing, requireOpen accepts every survey
+    @MockBean
+    private SurveyScheduler surveyScheduler;
+
     // Autowire the MockMvc to perform HTTP requests in tests
     @Autowired
     private MockMvc mockMvc;
@@ -48,6 +59,10 @@ public class SurveyResourceTest {
     // URL for generic questions
     private static String GENERIC_QUESTION_URL = "http://localhost:8080/surveys/Survey1/questions";
 
+    // Survey returned for the existence check of write requests
+    private static final Survey SURVEY = new Survey("Survey1", "My Favorite Survey", "Description of the Survey",
+            new ArrayList<>());
+
     @Test
     public void retrieveSpecificSurveyQuestion_basicScenario() throws Exception {
         // Create a GET request for the specific survey question URL
@@ -131,6 +146,7 @@ public class SurveyResourceTest {
 				}
 			""";
 		
+		when(surveyService.retrieveSurveyById("Survey1")).thenReturn(SURVEY);
 		when(surveyService.addNewSurveyQuestion(anyString(),any())).thenReturn("SOME_ID");
 
 		RequestBuilder requestBuilder = 
@@ -149,4 +165,31 @@ public class SurveyResourceTest {
 		
 	}
 
+    @Test
+    void addNewSurveyQuestion_replaysRetryWithSameIdempotencyKey() throws Exception {
+        String requestBody = """
+                {
+                  "description": "Your Favorite Language",
+                  "options": ["Java", "Python"],
+                  "correctAnswer": "Java"
+                }
+                """;
+
+        when(surveyService.retrieveSurveyById("Survey1")).thenReturn(SURVEY);
+        when(surveyService.addNewSurveyQuestion(anyString(), any())).thenReturn("FIRST_ID", "SECOND_ID");
+
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.post(GENERIC_QUESTION_URL)
+                .header("Idempotency-Key", "retry-1")
+                .content(requestBody).contentType(MediaType.APPLICATION_JSON);
+
+        MockHttpServletResponse first = mockMvc.perform(requestBuilder).andReturn().getResponse();
+        MockHttpServletResponse retry = mockMvc.perform(requestBuilder).andReturn().getResponse();
+
+        // The retry gets the original response and the question is added only once
+        assertEquals(201, retry.getStatus());
+        assertEquals(first.getHeader("Location"), retry.getHeader("Location"));
+        assertTrue(retry.getHeader("Location").contains("FIRST_ID"));
+        assertEquals("true", retry.getHeader("Idempotent-Replayed"));
+        verify(surveyService, times(1)).addNewSurveyQuestion(anyString(), any());
+    }
 }
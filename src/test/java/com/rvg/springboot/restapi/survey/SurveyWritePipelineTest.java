@@ -0,0 +1,157 @@
+package com.rvg.springboot.restapi.survey;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Test the write pipeline and journal through the SurveyService API
+public class SurveyWritePipelineTest {
+
+    @TempDir
+    Path journalDirectory;
+
+    @Test
+    void concurrentAdds_areCoalescedWithoutLostUpdates() throws Exception {
+        SurveyService surveyService = new SurveyService(SurveyMutationJournal.disabled(), true, 16);
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                Question question = new Question(null, "Question " + i, "A", Arrays.asList("A", "B"));
+                results.add(clients.submit(() -> surveyService.addNewSurveyQuestion("Survey1", question)));
+            }
+            for (Future<String> result : results) {
+                assertNotNull(result.get());
+            }
+        } finally {
+            clients.shutdown();
+            surveyService.close();
+        }
+
+        // The four seed questions plus every added question
+        assertEquals(204, surveyService.retrieveAllQuestions("Survey1").size());
+    }
+
+    @Test
+    void journaledChanges_surviveRestart() throws Exception {
+        String journalFile = journalDirectory.resolve("surveys.journal").toString();
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+        SurveyMutationJournal journal = new SurveyMutationJournal(objectMapper, journalFile);
+        SurveyService surveyService = new SurveyService(journal, true, 16);
+        String questionId = surveyService.addNewSurveyQuestion("Survey1",
+                new Question(null, "Persisted?", "Yes", Arrays.asList("Yes", "No")));
+        surveyService.deleteSurveyQuestion("Survey1", "Question1");
+        surveyService.close();
+        journal.close();
+
+        SurveyService restarted = new SurveyService(new SurveyMutationJournal(objectMapper, journalFile), false, 1);
+
+        assertEquals("Persisted?", restarted.retrieveSpecificSurveyQuestion("Survey1", questionId).getDescription());
+        assertNull(restarted.retrieveSpecificSurveyQuestion("Survey1", "Question1"));
+    }
+
+    @Test
+    void failingMutation_failsAloneAndLeavesNoPartialChanges() {
+        SurveyService surveyService = new SurveyService(SurveyMutationJournal.disabled(), false, 1);
+        IllegalArgumentException rejection = new IllegalArgumentException("Invalid patch");
+
+        List<SurveyWritePipeline.Outcome> outcomes = surveyService.commit("Survey1", List.of(
+                questions -> add(questions, "Before"),
+                questions -> {
+                    add(questions, "Partial");
+                    throw rejection;
+                },
+                questions -> add(questions, "After")));
+
+        assertEquals("Before", outcomes.get(0).get());
+        assertSame(rejection, outcomes.get(1).failure());
+        assertEquals("After", outcomes.get(2).get());
+        assertEquals(List.of("Question1", "Question2", "Question3", "Question4", "Before", "After"),
+                surveyService.retrieveAllQuestions("Survey1").stream().map(Question::getId).toList());
+    }
+
+    @Test
+    void incompleteLastRecord_isDroppedOnReplay() throws Exception {
+        Path journalFile = journalDirectory.resolve("surveys.journal");
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+        try (SurveyMutationJournal journal = new SurveyMutationJournal(objectMapper, journalFile.toString())) {
+            new SurveyService(journal, false, 1).deleteSurveyQuestion("Survey1", "Question1");
+        }
+        // A crash in the middle of the next append
+        Files.writeString(journalFile, "{\"id\":\"Survey1\",\"questions\":[{\"id\":\"Quest",
+                StandardOpenOption.APPEND);
+
+        SurveyService restarted = new SurveyService(new SurveyMutationJournal(objectMapper, journalFile.toString()),
+                false, 1);
+
+        assertNull(restarted.retrieveSpecificSurveyQuestion("Survey1", "Question1"));
+        assertEquals(1, Files.readAllLines(journalFile, StandardCharsets.UTF_8).size());
+    }
+
+    @Test
+    void corruptRecordBeforeTheLast_failsReplay() throws Exception {
+        Path journalFile = journalDirectory.resolve("surveys.journal");
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+        try (SurveyMutationJournal journal = new SurveyMutationJournal(objectMapper, journalFile.toString())) {
+            new SurveyService(journal, false, 1).deleteSurveyQuestion("Survey1", "Question1");
+        }
+        String valid = Files.readString(journalFile, StandardCharsets.UTF_8);
+        Files.writeString(journalFile, "{\"id\":\n" + valid, StandardCharsets.UTF_8);
+
+        SurveyMutationJournal journal = new SurveyMutationJournal(objectMapper, journalFile.toString());
+        assertThrows(UncheckedIOException.class, journal::replay);
+    }
+
+    @Test
+    void journal_isCompactedWhileRunning() throws Exception {
+        Path journalFile = journalDirectory.resolve("surveys.journal");
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+        try (SurveyMutationJournal journal = new SurveyMutationJournal(objectMapper, journalFile.toString(),
+                DataSize.ofBytes(1))) {
+            SurveyService surveyService = new SurveyService(journal, false, 1);
+            for (int i = 0; i < 20; i++) {
+                surveyService.addNewSurveyQuestion("Survey1",
+                        new Question(null, "Question " + i, "A", Arrays.asList("A", "B")));
+            }
+
+            // Without compaction there would be one line per commit
+            assertTrue(Files.readAllLines(journalFile, StandardCharsets.UTF_8).size() <= 2);
+        }
+
+        SurveyService restarted = new SurveyService(new SurveyMutationJournal(objectMapper, journalFile.toString()),
+                false, 1);
+        assertEquals(24, restarted.retrieveAllQuestions("Survey1").size());
+    }
+
+    private static String add(List<Question> questions, String id) {
+        questions.add(new Question(id, id, "A", Arrays.asList("A", "B")));
+        return id;
+    }
+}
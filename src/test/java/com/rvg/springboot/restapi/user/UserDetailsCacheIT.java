@@ -0,0 +1,49 @@
+/**
+ * Integration test for the user lookup caches.
+ *
+ * Counts the SQL queries Hibernate executes: once the first request has filled the caches,
+ * repeating it must not reach the database, neither to authenticate nor to read the page.
+ */
+package com.rvg.springboot.restapi.user;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.ResponseEntity;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:user-cache",
+        "spring.jpa.properties.hibernate.generate_statistics=true" })
+public class UserDetailsCacheIT {
+
+    @Autowired
+    private TestRestTemplate template;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void retrieveUsers_secondRequestIsServedFromCaches() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        ResponseEntity<String> first = template.withBasicAuth("admin", "admin").getForEntity("/users?size=2",
+                String.class);
+        assertTrue(first.getStatusCode().is2xxSuccessful());
+        long queries = statistics.getPrepareStatementCount();
+
+        ResponseEntity<String> second = template.withBasicAuth("admin", "admin").getForEntity("/users?size=2",
+                String.class);
+        assertTrue(second.getStatusCode().is2xxSuccessful());
+        assertEquals(first.getBody(), second.getBody());
+        assertEquals(queries, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,59 @@
+/**
+ * Integration test for the UserDetailsResource REST API.
+ *
+ * Runs against the users seeded by UserDetailsCommandLineRunner and checks keyset
+ * pagination over /users and the NDJSON export of /users/export.
+ */
+package com.rvg.springboot.restapi.user;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.ResponseEntity;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+public class UserDetailsResourceIT {
+
+    @Autowired
+    private TestRestTemplate template;
+
+    @SuppressWarnings("null")
+    @Test
+    void retrieveUsers_walksAllPagesWithKeyset() throws JSONException {
+        int users = 0;
+        Long after = 0L;
+
+        // Follow the "next" cursor until the last page
+        while (after != null) {
+            ResponseEntity<String> responseEntity = template.withBasicAuth("admin", "admin")
+                    .getForEntity("/users?size=3&after=" + after, String.class);
+            assertTrue(responseEntity.getStatusCode().is2xxSuccessful());
+
+            JSONObject page = new JSONObject(responseEntity.getBody());
+            users += page.getJSONArray("users").length();
+            after = page.isNull("next") ? null : page.getLong("next");
+        }
+
+        // admin, rvg, user1 and user2
+        assertEquals(4, users);
+    }
+
+    @SuppressWarnings("null")
+    @Test
+    void exportUsersByRole_streamsOneUserPerLine() throws JSONException {
+        ResponseEntity<String> responseEntity = template.withBasicAuth("admin", "admin")
+                .getForEntity("/users/export?role=Admin", String.class);
+
+        assertTrue(responseEntity.getStatusCode().is2xxSuccessful());
+        String[] lines = responseEntity.getBody().trim().split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("Admin", new JSONObject(lines[0]).getString("role"));
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ * Integration test for write access to the user accounts exported by Spring Data REST.
+ *
+ * Uses its own in-memory database, so the account created here does not show up in the
+ * user counts of UserDetailsResourceIT.
+ */
+package com.rvg.springboot.restapi.user;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT,
+        properties = "spring.datasource.url=jdbc:h2:mem:user-write-access")
+public class UserDetailsWriteAccessIT {
+
+    @Autowired
+    private TestRestTemplate template;
+
+    @Test
+    void plainUser_cannotChangeAccounts() {
+        URI plainUser = createUser("plain");
+        TestRestTemplate plain = template.withBasicAuth("plain", "secret");
+        String body = "{\"name\":\"plain\",\"password\":\"hijacked\"}";
+
+        assertTrue(plain.getForEntity("/userDetailses", String.class).getStatusCode().is2xxSuccessful());
+        assertEquals(HttpStatus.FORBIDDEN,
+                plain.postForEntity("/userDetailses", json(body), String.class).getStatusCode());
+        assertEquals(HttpStatus.FORBIDDEN,
+                plain.exchange(plainUser, HttpMethod.PUT, json(body), String.class).getStatusCode());
+        assertEquals(HttpStatus.FORBIDDEN,
+                plain.exchange(plainUser, HttpMethod.PATCH, json(body), String.class).getStatusCode());
+        assertEquals(HttpStatus.FORBIDDEN,
+                plain.exchange(plainUser, HttpMethod.DELETE, null, String.class).getStatusCode());
+    }
+
+    @Test
+    void putWithoutPassword_keepsStoredPassword() {
+        URI renamedUser = createUser("renamed");
+
+        // The password is write-only, so a read-modify-write round trip never sends it
+        ResponseEntity<String> responseEntity = template.withBasicAuth("admin", "admin")
+                .exchange(renamedUser, HttpMethod.PUT, json("{\"name\":\"renamed\"}"), String.class);
+        assertTrue(responseEntity.getStatusCode().is2xxSuccessful());
+
+        assertEquals(HttpStatus.OK,
+                template.withBasicAuth("renamed", "secret").getForEntity("/surveys", String.class).getStatusCode());
+    }
+
+    @Test
+    void duplicateName_isConflict() {
+        createUser("twice");
+
+        ResponseEntity<String> responseEntity = template.withBasicAuth("admin", "admin").postForEntity(
+                "/userDetailses", json("{\"name\":\"twice\",\"password\":\"other\"}"), String.class);
+
+        assertEquals(HttpStatus.CONFLICT, responseEntity.getStatusCode());
+        assertEquals(HttpStatus.OK,
+                template.withBasicAuth("twice", "secret").getForEntity("/surveys", String.class).getStatusCode());
+    }
+
+    // Create a user with the password "secret" as admin and return its URI
+    private URI createUser(String name) {
+        ResponseEntity<String> responseEntity = template.withBasicAuth("admin", "admin").postForEntity(
+                "/userDetailses", json("{\"name\":\"" + name + "\",\"password\":\"secret\"}"), String.class);
+        assertEquals(HttpStatus.CREATED, responseEntity.getStatusCode());
+        return responseEntity.getHeaders().getLocation();
+    }
+
+    private static HttpEntity<String> json(String body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return new HttpEntity<>(body, headers);
+    }
+}